@@ -0,0 +1,160 @@
+package com.amelinroman.webfluxsecurity.blockhound;
+
+import com.amelinroman.webfluxsecurity.dto.AuthRequestDto;
+import com.amelinroman.webfluxsecurity.dto.AuthResponseDto;
+import com.amelinroman.webfluxsecurity.dto.RefreshRequestDto;
+import com.amelinroman.webfluxsecurity.dto.UserDto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Amelin Roman
+ * Класс AuthFlowsBlockingTest выполняет сценарии AuthRestControllerV1Test — регистрацию, вход, получение информации
+ * о пользователе, обновление сессии и выход — параллельно для нескольких пользователей на приложении, запущенном
+ * на встроенной базе данных H2, с установленным BlockHound. Любой блокирующий вызов на неблокирующем потоке,
+ * не входящий в BlockingAllowlist, приводит к падению теста.
+ * Тест помечен тегом blockhound и запускается только в профиле Maven blockhound.
+ */
+@Slf4j
+@Tag("blockhound")
+@ActiveProfiles("blockhound")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class AuthFlowsBlockingTest {
+
+    private static final String BASE_PATH = "/api/v1/auth";
+    private static final int USERS = 64;
+    private static final int CONCURRENCY = 16;
+
+    /**
+     * Блокирующие вызовы, обнаруженные BlockHound. Кроме записи в список, BlockHound выбрасывает ошибку
+     * в самом вызове, но она может быть перехвачена приложением, поэтому тест проверяет список.
+     */
+    private static final Queue<String> VIOLATIONS = new ConcurrentLinkedQueue<>();
+
+    static {
+        BlockHound.install(new BlockingAllowlist(), builder -> builder.blockingMethodCallback(method -> {
+            BlockingOperationError error = new BlockingOperationError(method);
+            VIOLATIONS.add(method + " on thread " + Thread.currentThread().getName() + " at " + origin(error));
+            throw error;
+        }));
+    }
+
+    @LocalServerPort
+    private int port;
+
+    /**
+     * Параллельно выполняет сценарии аутентификации и проверяет, что все запросы успешны
+     * и ни один из них не выполнил блокирующий вызов на неблокирующем потоке.
+     */
+    @Test
+    public void testAuthFlowsDoNotBlock() {
+        WebClient client = WebClient.create("http://localhost:" + port + BASE_PATH);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        List<Throwable> errors = Flux.range(0, USERS)
+                .flatMap(i -> flow(client, username(runId, i))
+                        .then(Mono.<Throwable>empty())
+                        .onErrorResume(Mono::just), CONCURRENCY)
+                .collectList()
+                .block();
+
+        assertTrue(VIOLATIONS.isEmpty(), () -> "Blocking calls detected:\n" + VIOLATIONS.stream().distinct()
+                .collect(Collectors.joining("\n")));
+        assertEquals(List.of(), errors);
+    }
+
+    /**
+     * Регистрирует пользователя, входит в систему, запрашивает информацию о пользователе, обновляет сессию,
+     * повторно запрашивает информацию с новым токеном и выходит из системы. Кроме того, запрашивает информацию
+     * без токена, чтобы пройти через обработку ошибки аутентификации.
+     */
+    private Mono<Void> flow(WebClient client, String username) {
+        return client.get()
+                .uri("/info")
+                .exchangeToMono(response -> response.statusCode() == HttpStatus.UNAUTHORIZED
+                        ? response.releaseBody()
+                        : response.createError().then())
+                .then(client.post()
+                .uri("/register")
+                .bodyValue(Map.of("username", username, "password", "password", "first_name", "Block", "last_name", "Hound"))
+                .retrieve()
+                .bodyToMono(UserDto.class))
+                .then(client.post()
+                        .uri("/login")
+                        .bodyValue(credentials(username))
+                        .retrieve()
+                        .bodyToMono(AuthResponseDto.class))
+                .flatMap(login -> info(client, login.getToken())
+                        .then(client.post()
+                                .uri("/refresh")
+                                .bodyValue(refreshRequest(login.getRefreshToken()))
+                                .retrieve()
+                                .bodyToMono(AuthResponseDto.class)))
+                .flatMap(refresh -> info(client, refresh.getToken())
+                        .then(client.post()
+                                .uri("/logout")
+                                .header(HttpHeaders.AUTHORIZATION, "Bearer " + refresh.getToken())
+                                .bodyValue(refreshRequest(refresh.getRefreshToken()))
+                                .retrieve()
+                                .toBodilessEntity()))
+                .then();
+    }
+
+    /**
+     * Возвращает кадры стека приложения, из которых выполнен блокирующий вызов.
+     */
+    private static String origin(Throwable error) {
+        return Arrays.stream(error.getStackTrace())
+                .filter(frame -> frame.getClassName().startsWith("com.amelinroman.webfluxsecurity")
+                        && !frame.getClassName().startsWith(AuthFlowsBlockingTest.class.getName()))
+                .map(StackTraceElement::toString)
+                .limit(3)
+                .collect(Collectors.joining(" <- "));
+    }
+
+    private static Mono<UserDto> info(WebClient client, String token) {
+        return client.get()
+                .uri("/info")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .retrieve()
+                .bodyToMono(UserDto.class);
+    }
+
+    private static AuthRequestDto credentials(String username) {
+        AuthRequestDto credentials = new AuthRequestDto();
+        credentials.setUsername(username);
+        credentials.setPassword("password");
+        return credentials;
+    }
+
+    private static RefreshRequestDto refreshRequest(String refreshToken) {
+        RefreshRequestDto request = new RefreshRequestDto();
+        request.setRefreshToken(refreshToken);
+        return request;
+    }
+
+    private static String username(String runId, int i) {
+        return "blockhound_" + runId + "_" + i;
+    }
+}
@@ -0,0 +1,20 @@
+package com.amelinroman.webfluxsecurity.blockhound;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * @author Amelin Roman
+ * Класс BlockingAllowlist содержит проверенный список блокирующих вызовов, допустимых на неблокирующих потоках.
+ * Каждое исключение должно сопровождаться причиной, по которой вызов не задерживает поток на заметное время.
+ */
+public class BlockingAllowlist implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        // SecureRandom по умолчанию (NativePRNG) периодически дочитывает буфер из /dev/urandom.
+        // Чтение /dev/urandom не ждет накопления энтропии и не блокируется, но BlockHound видит в нем FileInputStream.
+        // Через этот вызов проходят генерация refresh-токена и подпись ECDSA.
+        builder.allowBlockingCallsInside("sun.security.provider.NativePRNG$RandomIO", "ensureBufferValid");
+    }
+}
@@ -0,0 +1,54 @@
+package com.amelinroman.webfluxsecurity.benchmark;
+
+import com.amelinroman.webfluxsecurity.security.AuthMetrics;
+import com.amelinroman.webfluxsecurity.security.BearerTokenServerAuthenticationConverter;
+import com.amelinroman.webfluxsecurity.security.JwtHandler;
+import com.amelinroman.webfluxsecurity.security.JwtVerifier;
+import com.amelinroman.webfluxsecurity.security.SigningAlgorithm;
+import com.amelinroman.webfluxsecurity.security.SigningKeyStore;
+import com.amelinroman.webfluxsecurity.security.TokenDenylist;
+import com.amelinroman.webfluxsecurity.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Amelin Roman
+ * Бенчмарк BearerTokenServerAuthenticationConverter.convert на подготовленном запросе
+ * с заголовком Authorization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BearerTokenConverterBenchmark {
+
+    private BearerTokenServerAuthenticationConverter converter;
+    private MockServerWebExchange exchange;
+
+    @Setup
+    public void setUp() {
+        SigningKeyStore signingKeyStore = BenchmarkFixtures.signingKeyStore(SigningAlgorithm.ES256);
+        converter = new BearerTokenServerAuthenticationConverter(
+                new JwtHandler(new JwtVerifier(BenchmarkFixtures.JWT_SECRET, signingKeyStore, true), new VerifiedTokenCache(10_000),
+                new TokenDenylist(BenchmarkFixtures.EXPIRATION, 10, 1_000, new SimpleMeterRegistry())),
+                new AuthMetrics(new SimpleMeterRegistry()));
+        exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/auth/info")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + BenchmarkFixtures.token(signingKeyStore)));
+    }
+
+    @Benchmark
+    public Authentication convert() {
+        return converter.convert(exchange).block();
+    }
+}
@@ -0,0 +1,178 @@
+package com.amelinroman.webfluxsecurity.benchmark;
+
+import com.amelinroman.webfluxsecurity.entity.UserCredentials;
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import com.amelinroman.webfluxsecurity.security.AuthMetrics;
+import com.amelinroman.webfluxsecurity.security.LoginThrottle;
+import com.amelinroman.webfluxsecurity.security.ReactivePasswordEncoder;
+import com.amelinroman.webfluxsecurity.security.SecurityService;
+import com.amelinroman.webfluxsecurity.security.SigningAlgorithm;
+import com.amelinroman.webfluxsecurity.security.SigningKey;
+import com.amelinroman.webfluxsecurity.security.SigningKeyStore;
+import com.amelinroman.webfluxsecurity.security.TokenDetails;
+import com.amelinroman.webfluxsecurity.security.TokenMinter;
+import com.amelinroman.webfluxsecurity.service.RefreshTokenService;
+import com.amelinroman.webfluxsecurity.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.LocalDateTime;
+
+/**
+ * @author Amelin Roman
+ * Класс BenchmarkFixtures содержит общие данные и фабричные методы для бенчмарков.
+ * Значения параметров совпадают с application.yaml.
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "b5f59337a612a2a7dc07328f3e7d1a04722967c7f06df20a499a7d3f91ff2a7e";
+    static final String ENCODER_SECRET = "FZK2DZ82odqS13e8aENggaMbb_fAkl-nJL4AEVBX43g";
+    static final int EXPIRATION = 900;
+    static final String ISSUER = "proselyte";
+    static final String USERNAME = "test1";
+    static final String PASSWORD = "testtest";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Создает пользователя, используемого во всех бенчмарках.
+     *
+     * @return объект UserEntity с заполненными полями.
+     */
+    static UserEntity user() {
+        return UserEntity.builder()
+                .id(2L)
+                .username(USERNAME)
+                .password(PASSWORD)
+                .role(UserRole.USER)
+                .firstName("Vasya")
+                .lastName("Pypkin")
+                .enabled(true)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * Создает хранилище с одним ключом подписи указанного алгоритма, не обращающееся к базе данных.
+     *
+     * @param algorithm алгоритм подписи.
+     * @return хранилище ключей подписи.
+     */
+    static SigningKeyStore signingKeyStore(SigningAlgorithm algorithm) {
+        KeyPair keyPair = generateKeyPair(algorithm);
+        SigningKey signingKey = new SigningKey("benchmark", algorithm, keyPair.getPublic(), keyPair.getPrivate(),
+                LocalDateTime.now(), LocalDateTime.now().plusDays(1));
+
+        return new SigningKeyStore(null, algorithm.name(), 86400, 900, EXPIRATION, "benchmark") {
+            @Override
+            public SigningKey activeKey() {
+                return signingKey;
+            }
+
+            @Override
+            public SigningKey findByKid(String kid) {
+                return signingKey.getKid().equals(kid) ? signingKey : null;
+            }
+        };
+    }
+
+    private static KeyPair generateKeyPair(SigningAlgorithm algorithm) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(algorithm.getKeyAlgorithm());
+            if (algorithm == SigningAlgorithm.ES256) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            } else if (algorithm == SigningAlgorithm.RS256) {
+                generator.initialize(2048);
+            }
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Создает SecurityService с ключом ES256.
+     *
+     * @return настроенный объект SecurityService.
+     */
+    static SecurityService securityService() {
+        return securityService(signingKeyStore(SigningAlgorithm.ES256));
+    }
+
+    /**
+     * Создает SecurityService, в котором поиск пользователя, сравнение пароля и сохранение refresh-токена
+     * заменены заглушками, чтобы измерялась только генерация токена.
+     *
+     * @param signingKeyStore хранилище ключей подписи.
+     * @return настроенный объект SecurityService.
+     */
+    static SecurityService securityService(SigningKeyStore signingKeyStore) {
+        UserEntity user = user();
+        UserCredentials credentials = UserCredentials.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .password(user.getPassword())
+                .role(user.getRole())
+                .enabled(user.isEnabled())
+                .build();
+        UserService userService = new UserService(null, null, null, null, new SimpleMeterRegistry()) {
+            @Override
+            public Mono<UserCredentials> getUserCredentials(String username) {
+                return Mono.just(credentials);
+            }
+        };
+        ReactivePasswordEncoder passwordEncoder = new ReactivePasswordEncoder() {
+            @Override
+            public Mono<String> encode(CharSequence rawPassword) {
+                return Mono.just(rawPassword.toString());
+            }
+
+            @Override
+            public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+                return Mono.just(Boolean.TRUE);
+            }
+        };
+
+        RefreshTokenService refreshTokenService = new RefreshTokenService(null, 0, 1) {
+            @Override
+            public Mono<TokenDetails> issue(Long userId) {
+                return Mono.just(TokenDetails.builder()
+                        .userId(userId)
+                        .refreshToken("refresh")
+                        .build());
+            }
+        };
+
+        SecurityService securityService = new SecurityService(userService, passwordEncoder,
+                new AuthMetrics(new SimpleMeterRegistry()), new LoginThrottle(1000, 1e12, 1000, 1e12, 10, 60),
+                refreshTokenService, tokenMinter(signingKeyStore));
+        return securityService;
+    }
+
+    /**
+     * Создает TokenMinter, подписывающий токены ключом из хранилища.
+     *
+     * @param signingKeyStore хранилище ключей подписи.
+     * @return настроенный объект TokenMinter.
+     */
+    static TokenMinter tokenMinter(SigningKeyStore signingKeyStore) {
+        return new TokenMinter(signingKeyStore, ISSUER, EXPIRATION);
+    }
+
+    /**
+     * Выпускает действительный JWT-токен для пользователя бенчмарков, подписанный ключом из хранилища.
+     *
+     * @param signingKeyStore хранилище ключей подписи.
+     * @return JWT-токен.
+     */
+    static String token(SigningKeyStore signingKeyStore) {
+        return securityService(signingKeyStore).authenticate(USERNAME, PASSWORD).block().getToken();
+    }
+}
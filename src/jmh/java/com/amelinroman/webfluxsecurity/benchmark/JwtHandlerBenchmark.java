@@ -0,0 +1,57 @@
+package com.amelinroman.webfluxsecurity.benchmark;
+
+import com.amelinroman.webfluxsecurity.security.JwtVerifier;
+import com.amelinroman.webfluxsecurity.security.SigningAlgorithm;
+import com.amelinroman.webfluxsecurity.security.SigningKeyStore;
+import com.amelinroman.webfluxsecurity.security.JwtHandler;
+import com.amelinroman.webfluxsecurity.security.TokenClaims;
+import com.amelinroman.webfluxsecurity.security.TokenDenylist;
+import com.amelinroman.webfluxsecurity.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Amelin Roman
+ * Бенчмарк проверки JWT-токена: полная проверка подписи и Claims и проверка через кэш проверенных токенов.
+ * Параметр algorithm задает алгоритм асимметричной подписи токена.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtHandlerBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    private SigningAlgorithm algorithm;
+
+    private String token;
+    private JwtVerifier verifier;
+    private JwtHandler jwtHandler;
+
+    @Setup
+    public void setUp() {
+        SigningKeyStore signingKeyStore = BenchmarkFixtures.signingKeyStore(algorithm);
+        token = BenchmarkFixtures.token(signingKeyStore);
+        verifier = new JwtVerifier(BenchmarkFixtures.JWT_SECRET, signingKeyStore, true);
+        jwtHandler = new JwtHandler(verifier, new VerifiedTokenCache(10_000),
+                new TokenDenylist(BenchmarkFixtures.EXPIRATION, 10, 1_000, new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public TokenClaims verifyUncached() {
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public JwtHandler.VerificationResult checkCached() {
+        return jwtHandler.check(token).block();
+    }
+}
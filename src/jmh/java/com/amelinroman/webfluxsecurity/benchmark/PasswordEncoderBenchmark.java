@@ -0,0 +1,50 @@
+package com.amelinroman.webfluxsecurity.benchmark;
+
+import com.amelinroman.webfluxsecurity.security.PBFDK2Encoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Amelin Roman
+ * Бенчмарк кодирования и сравнения паролей в PBFDK2Encoder. Подбор количества итераций отключен,
+ * значения по умолчанию параметров iterations и keyLength совпадают с минимальными значениями
+ * из application.yaml и могут быть переопределены через -p.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordEncoderBenchmark {
+
+    @Param("10000")
+    private int iterations;
+
+    @Param("256")
+    private int keyLength;
+
+    private PBFDK2Encoder encoder;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        encoder = new PBFDK2Encoder(BenchmarkFixtures.ENCODER_SECRET, 64, keyLength, 0, iterations);
+        encodedPassword = encoder.encode(BenchmarkFixtures.PASSWORD);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(BenchmarkFixtures.PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(BenchmarkFixtures.PASSWORD, encodedPassword);
+    }
+}
@@ -0,0 +1,36 @@
+package com.amelinroman.webfluxsecurity.benchmark;
+
+import com.amelinroman.webfluxsecurity.security.SecurityService;
+import com.amelinroman.webfluxsecurity.security.TokenDetails;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Amelin Roman
+ * Бенчмарк генерации токена в SecurityService.authenticate. Поиск пользователя и сравнение пароля
+ * заменены заглушками, поэтому измеряется только выпуск JWT-токена.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SecurityServiceBenchmark {
+
+    private SecurityService securityService;
+
+    @Setup
+    public void setUp() {
+        securityService = BenchmarkFixtures.securityService();
+    }
+
+    @Benchmark
+    public TokenDetails authenticate() {
+        return securityService.authenticate(BenchmarkFixtures.USERNAME, BenchmarkFixtures.PASSWORD).block();
+    }
+}
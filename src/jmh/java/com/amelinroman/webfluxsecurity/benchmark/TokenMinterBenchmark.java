@@ -0,0 +1,42 @@
+package com.amelinroman.webfluxsecurity.benchmark;
+
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import com.amelinroman.webfluxsecurity.security.SigningAlgorithm;
+import com.amelinroman.webfluxsecurity.security.TokenDetails;
+import com.amelinroman.webfluxsecurity.security.TokenMinter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Amelin Roman
+ * Бенчмарк выпуска JWT-токена в TokenMinter без аутентификации пользователя.
+ * Параметр algorithm задает алгоритм асимметричной подписи токена.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TokenMinterBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    private SigningAlgorithm algorithm;
+
+    private TokenMinter tokenMinter;
+
+    @Setup
+    public void setUp() {
+        tokenMinter = BenchmarkFixtures.tokenMinter(BenchmarkFixtures.signingKeyStore(algorithm));
+    }
+
+    @Benchmark
+    public TokenDetails mint() {
+        return tokenMinter.mint(2L, UserRole.USER, BenchmarkFixtures.USERNAME, 0);
+    }
+}
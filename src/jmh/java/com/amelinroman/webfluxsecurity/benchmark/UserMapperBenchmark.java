@@ -0,0 +1,46 @@
+package com.amelinroman.webfluxsecurity.benchmark;
+
+import com.amelinroman.webfluxsecurity.dto.UserDto;
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.mapper.UserMapper;
+import com.amelinroman.webfluxsecurity.mapper.UserMapperImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Amelin Roman
+ * Бенчмарк преобразований UserMapper между UserEntity и UserDto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UserMapperBenchmark {
+
+    private UserMapper mapper;
+    private UserEntity entity;
+    private UserDto dto;
+
+    @Setup
+    public void setUp() {
+        mapper = new UserMapperImpl();
+        entity = BenchmarkFixtures.user();
+        dto = mapper.map(entity);
+    }
+
+    @Benchmark
+    public UserDto entityToDto() {
+        return mapper.map(entity);
+    }
+
+    @Benchmark
+    public UserEntity dtoToEntity() {
+        return mapper.map(dto);
+    }
+}
@@ -0,0 +1,96 @@
+package com.amelinroman.webfluxsecurity.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.pool.PoolMetricsRecorder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Amelin Roman
+ * Класс MicrometerPoolMetricsRecorder публикует метрики пула соединений R2DBC, которых нет среди метрик
+ * Spring Boot (r2dbc.pool.acquired, idle, pending и т.д.): время получения соединения из пула с исходом,
+ * время жизни, простоя и закрытия соединений.
+ * Все метрики помечаются тегом name с именем пула.
+ */
+public class MicrometerPoolMetricsRecorder implements PoolMetricsRecorder {
+
+    private final Timer acquireSuccessTimer;
+    private final Timer acquireFailureTimer;
+    private final Timer lifetimeTimer;
+    private final Timer idleTimer;
+    private final Timer destroyTimer;
+
+    /**
+     * Конструктор класса MicrometerPoolMetricsRecorder.
+     *
+     * @param meterRegistry реестр метрик.
+     * @param name          имя пула соединений.
+     */
+    public MicrometerPoolMetricsRecorder(MeterRegistry meterRegistry, String name) {
+        this.acquireSuccessTimer = acquireTimer(meterRegistry, name, "success");
+        this.acquireFailureTimer = acquireTimer(meterRegistry, name, "failure");
+        this.lifetimeTimer = Timer.builder("r2dbc.pool.connection.lifetime")
+                .description("Время жизни соединения от создания до закрытия")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.idleTimer = Timer.builder("r2dbc.pool.connection.idle")
+                .description("Время простоя соединения в пуле перед выдачей")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.destroyTimer = Timer.builder("r2dbc.pool.connection.destroy")
+                .description("Время закрытия соединения")
+                .tag("name", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void recordAllocationSuccessAndLatency(long latencyMs) {
+        acquireSuccessTimer.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordAllocationFailureAndLatency(long latencyMs) {
+        acquireFailureTimer.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordResetLatency(long latencyMs) {
+    }
+
+    @Override
+    public void recordDestroyLatency(long latencyMs) {
+        destroyTimer.record(latencyMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordRecycled() {
+    }
+
+    @Override
+    public void recordLifetimeDuration(long millisecondsSinceAllocation) {
+        lifetimeTimer.record(millisecondsSinceAllocation, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordIdleTime(long millisecondsIdle) {
+        idleTimer.record(millisecondsIdle, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordSlowPath() {
+    }
+
+    @Override
+    public void recordFastPath() {
+    }
+
+    private static Timer acquireTimer(MeterRegistry meterRegistry, String name, String outcome) {
+        return Timer.builder("r2dbc.pool.acquire")
+                .description("Время получения соединения из пула, включая создание нового соединения")
+                .tag("name", name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
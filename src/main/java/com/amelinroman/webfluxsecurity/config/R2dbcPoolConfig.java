@@ -0,0 +1,90 @@
+package com.amelinroman.webfluxsecurity.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Option;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.Set;
+
+/**
+ * @author Amelin Roman
+ * Конфигурация пула соединений R2DBC. Пул создается явно, а не через URL r2dbc:pool:, чтобы все его параметры
+ * задавались свойствами spring.r2dbc.pool.* и были видны в одном месте, а к пулу подключались метрики
+ * MicrometerPoolMetricsRecorder. Метрики занятых, свободных и ожидающих соединений (r2dbc.pool.*)
+ * публикует Spring Boot для всех пулов в контексте.
+ * Для PostgreSQL включается кэш подготовленных выражений, поэтому фиксированные запросы UserRepository
+ * разбираются сервером один раз на соединение. Пул заранее открывает initial-size соединений
+ * при прогреве приложения в StartupWarmup.
+ */
+@Slf4j
+@Configuration
+public class R2dbcPoolConfig {
+
+    static final String POOL_NAME = "users";
+    private static final Set<String> POSTGRES_DRIVERS = Set.of("postgres", "postgresql");
+
+    /**
+     * Создает пул соединений по свойствам spring.r2dbc.*.
+     *
+     * @param properties                    свойства подключения и пула R2DBC.
+     * @param preparedStatementCacheQueries размер кэша подготовленных выражений PostgreSQL на соединение.
+     * @param meterRegistry                 реестр метрик.
+     * @return пул соединений.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool connectionFactory(R2dbcProperties properties,
+                                            @Value("${r2dbc.postgres.prepared-statement-cache-queries}") int preparedStatementCacheQueries,
+                                            MeterRegistry meterRegistry) {
+        ConnectionFactoryOptions urlOptions = ConnectionFactoryOptions.parse(properties.getUrl());
+        String driver = (String) urlOptions.getRequiredValue(ConnectionFactoryOptions.DRIVER);
+        if ("pool".equals(driver)) {
+            throw new IllegalStateException("spring.r2dbc.url must not use the pool driver, configure spring.r2dbc.pool instead");
+        }
+
+        ConnectionFactoryBuilder builder = ConnectionFactoryBuilder.withUrl(properties.getUrl());
+        if (StringUtils.hasText(properties.getUsername())) {
+            builder.username(properties.getUsername());
+        }
+        if (StringUtils.hasText(properties.getPassword())) {
+            builder.password(properties.getPassword());
+        }
+        builder.configure(options -> {
+            properties.getProperties().forEach((key, value) -> options.option(Option.valueOf(key), value));
+            if (POSTGRES_DRIVERS.contains(driver)) {
+                options.option(Option.valueOf("preparedStatementCacheQueries"), preparedStatementCacheQueries);
+            }
+        });
+        ConnectionFactory connectionFactory = builder.build();
+
+        R2dbcProperties.Pool pool = properties.getPool();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration.builder(connectionFactory)
+                .name(POOL_NAME)
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxAcquireTime(pool.getMaxAcquireTime())
+                .maxCreateConnectionTime(pool.getMaxCreateConnectionTime())
+                .validationDepth(pool.getValidationDepth())
+                .metricsRecorder(new MicrometerPoolMetricsRecorder(meterRegistry, POOL_NAME));
+        if (pool.getMaxLifeTime() != null) {
+            configuration.maxLifeTime(pool.getMaxLifeTime());
+        }
+        if (StringUtils.hasText(pool.getValidationQuery())) {
+            configuration.validationQuery(pool.getValidationQuery());
+        }
+
+        log.info("IN connectionFactory - pool {}: initial size {}, max size {}, max life time {}",
+                POOL_NAME, pool.getInitialSize(), pool.getMaxSize(), pool.getMaxLifeTime());
+        return new ConnectionPool(configuration.build());
+    }
+}
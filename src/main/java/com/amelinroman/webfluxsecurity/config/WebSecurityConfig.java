@@ -1,20 +1,24 @@
 package com.amelinroman.webfluxsecurity.config;
 
+import com.amelinroman.webfluxsecurity.security.AuthMetrics;
 import com.amelinroman.webfluxsecurity.security.AuthenticationManager;
 import com.amelinroman.webfluxsecurity.security.BearerTokenServerAuthenticationConverter;
 import com.amelinroman.webfluxsecurity.security.JwtHandler;
+import com.amelinroman.webfluxsecurity.security.JwtVerifier;
+import com.amelinroman.webfluxsecurity.security.RoutePolicy;
+import com.amelinroman.webfluxsecurity.security.SigningKeyStore;
+import com.amelinroman.webfluxsecurity.security.TokenDenylist;
+import com.amelinroman.webfluxsecurity.security.VerifiedTokenCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
 import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
 import org.springframework.security.web.server.SecurityWebFilterChain;
 import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
-import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
 import reactor.core.publisher.Mono;
 
 /**
@@ -31,31 +35,32 @@ public class WebSecurityConfig {
 
     @Value("${jwt.secret}")
     private String secret;
-
-    /**
-     * Открытые маршруты, доступные без аутентификации.
-     */
-    private final String[] publicRoutes = {"/api/v1/auth/register", "/api/v1/auth/login"};
+    @Value("${jwt.signing.accept-hs256}")
+    private boolean acceptHs256;
 
     /**
      * Настройка фильтров и правил для доступа к маршрутам, а также обработка
-     * ошибок аутентификации и авторизации.
+     * ошибок аутентификации и авторизации. Правила доступа к маршрутам определяются RoutePolicy.
      *
      * @param http HttpSecurity для настройки базовых правил доступа.
      * @param authenticationManager Аутентификационный менеджер, необходимый для создания фильтра аутентификации.
+     * @param verifiedTokenCache Кэш результатов проверки токенов, используемый конвертером Bearer-токенов.
+     * @param tokenDenylist Список отозванных токенов.
+     * @param signingKeyStore Хранилище ключей подписи для проверки асимметрично подписанных токенов.
+     * @param authMetrics Метрики этапов аутентификации.
+     * @param routePolicy Правила доступа к маршрутам.
      * @return SecurityWebFilterChain с настроенными правилами доступа и обработкой ошибок.
      */
     @Bean
-    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, AuthenticationManager authenticationManager) {
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, AuthenticationManager authenticationManager,
+                                                         VerifiedTokenCache verifiedTokenCache, TokenDenylist tokenDenylist,
+                                                         SigningKeyStore signingKeyStore, AuthMetrics authMetrics,
+                                                         RoutePolicy routePolicy) {
         return http
                 .csrf().disable()
                 .authorizeExchange()
-                .pathMatchers(HttpMethod.OPTIONS)
-                .permitAll()
-                .pathMatchers(publicRoutes)
-                .permitAll()
                 .anyExchange()
-                .authenticated()
+                .access(routePolicy)
                 .and()
                 .exceptionHandling()
                 .authenticationEntryPoint((swe , e) -> {
@@ -68,21 +73,32 @@ public class WebSecurityConfig {
                     return Mono.fromRunnable(() -> swe.getResponse().setStatusCode(HttpStatus.FORBIDDEN));
                 })
                 .and()
-                .addFilterAt(bearerAuthenticationFilter(authenticationManager), SecurityWebFiltersOrder.AUTHENTICATION)
+                .addFilterAt(bearerAuthenticationFilter(authenticationManager, verifiedTokenCache, tokenDenylist, signingKeyStore, authMetrics, routePolicy), SecurityWebFiltersOrder.AUTHENTICATION)
                 .build();
     }
 
     /**
      * Создает фильтр аутентификации с использованием токена Bearer для
-     * аутентификации пользователей.
+     * аутентификации пользователей. Для открытых маршрутов фильтр не выполняется, поэтому токен на них не разбирается.
      *
      * @param authenticationManager Аутентификационный менеджер, используемый для проверки подлинности пользователей.
+     * @param verifiedTokenCache Кэш результатов проверки токенов.
+     * @param tokenDenylist Список отозванных токенов.
+     * @param signingKeyStore Хранилище ключей подписи.
+     * @param authMetrics Метрики этапов аутентификации.
+     * @param routePolicy Правила доступа к маршрутам.
      * @return AuthenticationWebFilter с настроенными поведением аутентификации, использующим Bearer-токены.
      */
-    private AuthenticationWebFilter bearerAuthenticationFilter(AuthenticationManager authenticationManager) {
+    private AuthenticationWebFilter bearerAuthenticationFilter(AuthenticationManager authenticationManager,
+                                                               VerifiedTokenCache verifiedTokenCache,
+                                                               TokenDenylist tokenDenylist,
+                                                               SigningKeyStore signingKeyStore,
+                                                               AuthMetrics authMetrics,
+                                                               RoutePolicy routePolicy) {
         AuthenticationWebFilter bearerAuthenticationFilter = new AuthenticationWebFilter(authenticationManager);
-        bearerAuthenticationFilter.setServerAuthenticationConverter(new BearerTokenServerAuthenticationConverter(new JwtHandler(secret)));
-        bearerAuthenticationFilter.setRequiresAuthenticationMatcher(ServerWebExchangeMatchers.pathMatchers("/**"));
+        JwtHandler jwtHandler = new JwtHandler(new JwtVerifier(secret, signingKeyStore, acceptHs256), verifiedTokenCache, tokenDenylist);
+        bearerAuthenticationFilter.setServerAuthenticationConverter(new BearerTokenServerAuthenticationConverter(jwtHandler, authMetrics));
+        bearerAuthenticationFilter.setRequiresAuthenticationMatcher(routePolicy.requiresAuthenticationMatcher());
 
         return bearerAuthenticationFilter;
     }
@@ -27,4 +27,6 @@ public class AuthResponseDto {
     private String token;
     private Date issuedAt;
     private Date expiresAt;
+    private String refreshToken;
+    private Date refreshExpiresAt;
 }
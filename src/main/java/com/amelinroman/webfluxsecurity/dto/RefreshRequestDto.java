@@ -0,0 +1,16 @@
+package com.amelinroman.webfluxsecurity.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Data;
+
+/**
+ * @author Amelin Roman
+ * Класс RefreshRequestDto представляет собой объект передачи данных (Data Transfer Object)
+ * для запроса обновления сессии. Содержит refresh-токен, выданный при входе или предыдущем обновлении.
+ */
+@Data
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class RefreshRequestDto {
+    private String refreshToken;
+}
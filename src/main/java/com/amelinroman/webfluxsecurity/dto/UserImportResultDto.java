@@ -0,0 +1,35 @@
+package com.amelinroman.webfluxsecurity.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author Amelin Roman
+ * Класс UserImportResultDto представляет собой объект передачи данных (Data Transfer Object)
+ * с результатом импорта одной записи: номер строки во входном потоке, имя пользователя, статус,
+ * идентификатор созданного пользователя или описание ошибки.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class UserImportResultDto {
+
+    public static final String CREATED = "CREATED";
+    public static final String CONFLICT = "CONFLICT";
+    public static final String INVALID = "INVALID";
+    public static final String FAILED = "FAILED";
+
+    private long line;
+    private String username;
+    private String status;
+    private Long id;
+    private String error;
+}
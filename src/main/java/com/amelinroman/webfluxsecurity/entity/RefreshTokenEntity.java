@@ -0,0 +1,31 @@
+package com.amelinroman.webfluxsecurity.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author Amelin Roman
+ * Класс RefreshTokenEntity представляет сущность "Refresh-токен" для хранения данных в таблице "refresh_tokens".
+ * В базе данных хранится только SHA-256 хэш токена. Все токены, выпущенные в рамках одного входа в систему,
+ * относятся к одному семейству (familyId), что позволяет отозвать их разом при повторном использовании токена.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+@Table("refresh_tokens")
+public class RefreshTokenEntity {
+
+    @Id
+    private Long id;
+    private String tokenHash;
+    private String familyId;
+    private Long userId;
+    private boolean rotated;
+    private boolean revoked;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,40 @@
+package com.amelinroman.webfluxsecurity.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author Amelin Roman
+ * Класс SigningKeyEntity представляет сущность "Ключ подписи" для хранения данных в таблице "signing_keys".
+ * Открытый ключ хранится в формате X.509, закрытый — в формате PKCS#8, зашифрованный AES-GCM.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+@Table("signing_keys")
+public class SigningKeyEntity {
+
+    @Id
+    private Long id;
+    private String kid;
+    private String algorithm;
+    private String publicKey;
+    private String privateKey;
+    private LocalDateTime activatesAt;
+    private LocalDateTime expiresAt;
+    private LocalDateTime createdAt;
+
+    /**
+     * Маскирует закрытый ключ в строковых представлениях объекта класса SigningKeyEntity.
+     *
+     * @return маскированный закрытый ключ в виде строки "*********".
+     */
+    @ToString.Include(name = "privateKey")
+    private String maskPrivateKey() {
+        return "*********";
+    }
+}
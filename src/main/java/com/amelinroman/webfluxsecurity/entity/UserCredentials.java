@@ -0,0 +1,34 @@
+package com.amelinroman.webfluxsecurity.entity;
+
+import lombok.*;
+
+/**
+ * @author Amelin Roman
+ * Класс UserCredentials представляет проекцию таблицы "users" с полями, необходимыми для входа в систему:
+ * идентификатор, имя пользователя, закодированный пароль, роль, признак активности и версия безопасности.
+ * Остальные поля пользователя при входе не читаются из базы данных.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder(toBuilder = true)
+public class UserCredentials {
+
+    private Long id;
+    private String username;
+    @ToString.Exclude
+    private String password;
+    private UserRole role;
+    private boolean enabled;
+    private int securityVersion;
+
+    /**
+     * Маскирует пароль, подменяя его звездочками в строковых представлениях объекта класса UserCredentials.
+     *
+     * @return маскированный пароль пользователя в виде строки "*********".
+     */
+    @ToString.Include(name = "password")
+    private String maskPassword() {
+        return "*********";
+    }
+}
@@ -26,6 +26,7 @@ public class UserEntity {
     private String firstName;
     private String lastName;
     private boolean enabled;
+    private int securityVersion;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
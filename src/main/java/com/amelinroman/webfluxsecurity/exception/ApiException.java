@@ -7,4 +7,8 @@ public class ApiException extends RuntimeException{
         super(message);
         this.errorCode = errorCode;
     }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
 }
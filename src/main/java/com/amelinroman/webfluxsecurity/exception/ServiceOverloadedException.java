@@ -0,0 +1,12 @@
+package com.amelinroman.webfluxsecurity.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceOverloadedException extends ApiException{
+
+    public ServiceOverloadedException(String message) {
+        super(message, "PROSELYTE_SERVICE_OVERLOADED");
+    }
+}
@@ -0,0 +1,12 @@
+package com.amelinroman.webfluxsecurity.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends ApiException{
+
+    public TooManyRequestsException(String message) {
+        super(message, "PROSELYTE_TOO_MANY_REQUESTS");
+    }
+}
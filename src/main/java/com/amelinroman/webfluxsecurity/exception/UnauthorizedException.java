@@ -10,4 +10,8 @@ public class UnauthorizedException extends ApiException{
     public UnauthorizedException(String message) {
         super(message, "PROSELYTE_UNAUTHORIZED");
     }
+
+    public UnauthorizedException(String message, String errorCode) {
+        super(message, errorCode);
+    }
 }
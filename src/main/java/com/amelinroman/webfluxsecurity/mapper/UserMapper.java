@@ -4,6 +4,7 @@ import com.amelinroman.webfluxsecurity.dto.UserDto;
 import com.amelinroman.webfluxsecurity.entity.UserEntity;
 import org.mapstruct.InheritInverseConfiguration;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 /**
  * @author Amelin Roman
@@ -24,10 +25,12 @@ public interface UserMapper {
 
     /**
      * Преобразует объект {@code UserDto} в объект {@code UserEntity}.
+     * Версия безопасности пользователя управляется сервером и из {@code UserDto} не заполняется.
      *
      * @param userDto объект типа {@code UserDto} для преобразования.
      * @return объект типа {@code UserEntity}, соответствующий переданному объекту {@code UserDto}.
      */
     @InheritInverseConfiguration
+    @Mapping(target = "securityVersion", ignore = true)
     UserEntity map(UserDto userDto);
 }
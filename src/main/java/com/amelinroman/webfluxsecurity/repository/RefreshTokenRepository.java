@@ -0,0 +1,31 @@
+package com.amelinroman.webfluxsecurity.repository;
+
+import com.amelinroman.webfluxsecurity.entity.RefreshTokenEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author Amelin Roman
+ * Интерфейс RefreshTokenRepository предоставляет доступ к refresh-токенам в базе данных с использованием реактивной парадигмы.
+ * Ротация токена выполняется одним условным обновлением, поэтому из двух одновременных запросов с одним токеном
+ * успешным будет только один.
+ */
+public interface RefreshTokenRepository extends R2dbcRepository<RefreshTokenEntity, Long> {
+    Mono<RefreshTokenEntity> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("UPDATE refresh_tokens SET rotated = TRUE WHERE id = :id AND rotated = FALSE AND revoked = FALSE")
+    Mono<Integer> markRotated(Long id);
+
+    @Modifying
+    @Query("UPDATE refresh_tokens SET revoked = TRUE WHERE family_id = :familyId")
+    Mono<Integer> revokeFamily(String familyId);
+
+    @Modifying
+    @Query("DELETE FROM refresh_tokens WHERE id IN (SELECT id FROM refresh_tokens WHERE expires_at < :expiredBefore LIMIT :limit)")
+    Mono<Integer> deleteExpired(LocalDateTime expiredBefore, int limit);
+}
@@ -0,0 +1,23 @@
+package com.amelinroman.webfluxsecurity.repository;
+
+import com.amelinroman.webfluxsecurity.entity.SigningKeyEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author Amelin Roman
+ * Интерфейс SigningKeyRepository предоставляет доступ к ключам подписи JWT-токенов в базе данных
+ * с использованием реактивной парадигмы.
+ */
+public interface SigningKeyRepository extends R2dbcRepository<SigningKeyEntity, Long> {
+    Flux<SigningKeyEntity> findAllByExpiresAtAfter(LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM signing_keys WHERE expires_at < :expiredBefore")
+    Mono<Integer> deleteExpired(LocalDateTime expiredBefore);
+}
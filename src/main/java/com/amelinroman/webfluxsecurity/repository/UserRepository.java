@@ -1,14 +1,38 @@
 package com.amelinroman.webfluxsecurity.repository;
 
+import com.amelinroman.webfluxsecurity.entity.UserCredentials;
 import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+
 /**
  * @author Amelin Roman
  * Интерфейс UserRepository предоставляет доступ к данным пользователей в базе данных с использованием реактивной парадигмы.
  * UserRepository расширяет R2dbcRepository для работы с сущностью UserEntity и ключом типа Long.
+ * Замена пароля выполняется условным обновлением и не применяется, если пароль уже был изменен.
+ * Поиск по имени пользователя выполняется без учета регистра, имя передается уже нормализованным.
+ * Запросы входа и проверки активности читают только нужные столбцы. В PostgreSQL запрос входа находит строку
+ * по индексу lower(username) и читает ее из таблицы, а проверка активности покрывается индексом users_id_enabled_idx
+ * и может выполняться сканированием только индекса.
  */
 public interface UserRepository extends R2dbcRepository<UserEntity, Long> {
+    @Query("SELECT * FROM users WHERE lower(username) = :username")
     Mono<UserEntity> findByUsername(String username);
+
+    @Query("SELECT id, username, password, role, enabled, security_version FROM users WHERE lower(username) = :username")
+    Mono<UserCredentials> findCredentialsByUsername(String username);
+
+    @Query("SELECT enabled FROM users WHERE id = :id")
+    Mono<Boolean> findEnabledById(Long id);
+
+    Flux<UserEntity> findAllByUpdatedAtAfter(LocalDateTime updatedAt);
+
+    @Modifying
+    @Query("UPDATE users SET password = :newPassword, updated_at = :updatedAt WHERE id = :id AND password = :oldPassword")
+    Mono<Integer> replacePassword(Long id, String oldPassword, String newPassword, LocalDateTime updatedAt);
 }
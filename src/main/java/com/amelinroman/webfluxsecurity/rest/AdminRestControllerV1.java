@@ -0,0 +1,89 @@
+package com.amelinroman.webfluxsecurity.rest;
+
+import com.amelinroman.webfluxsecurity.dto.UserDto;
+import com.amelinroman.webfluxsecurity.dto.UserImportResultDto;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import com.amelinroman.webfluxsecurity.mapper.UserMapper;
+import com.amelinroman.webfluxsecurity.service.UserImportService;
+import com.amelinroman.webfluxsecurity.service.UserListingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * @author Amelin Roman
+ * AdminRestControllerV1 — это контроллер REST с операциями администрирования пользователей.
+ * Доступ к его конечным точкам есть только у пользователей с ролью ADMIN: кроме правила маршрута в RoutePolicy,
+ * роль проверяется и при вызове методов контроллера.
+ */
+@RestController
+@PreAuthorize("hasAuthority('ADMIN')")
+@RequiredArgsConstructor
+@RequestMapping("/api/v1/admin/users")
+public class AdminRestControllerV1 {
+
+    private final UserImportService userImportService;
+    private final UserListingService userListingService;
+    private final UserMapper mapper;
+
+    /**
+     * Массово регистрирует пользователей из потока NDJSON, по одному UserDto в строке.
+     * Записи читаются по мере вставки, результат по каждой записи возвращается в виде NDJSON
+     * в порядке входного потока, включая конфликты имен пользователей и ошибки проверки.
+     *
+     * @param users поток UserDto с данными пользователей.
+     * @return Flux<UserImportResultDto> с результатами импорта.
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserImportResultDto> importUsers(@RequestBody Flux<UserDto> users) {
+        return userImportService.importUsers(users.map(mapper::map));
+    }
+
+    /**
+     * Возвращает список пользователей в виде потока NDJSON, упорядоченного по идентификатору.
+     * Чтобы продолжить прерванную выгрузку, передайте в after_id идентификатор последнего полученного пользователя.
+     *
+     * @param enabled необязательный фильтр по признаку активности пользователя.
+     * @param role    необязательный фильтр по роли пользователя.
+     * @param afterId необязательный идентификатор, после которого начинается выгрузка.
+     * @return Flux<UserDto> с пользователями.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserDto> getUsers(@RequestParam(required = false) Boolean enabled,
+                                  @RequestParam(required = false) UserRole role,
+                                  @RequestParam(name = "after_id", required = false) Long afterId) {
+        return userListingService.findUsers(enabled, role, afterId)
+                .map(mapper::map);
+    }
+
+    /**
+     * Возвращает список пользователей в виде потока Server-Sent Events, упорядоченного по идентификатору.
+     * Идентификатором каждого события служит идентификатор пользователя, поэтому при переподключении
+     * выгрузка продолжается с пользователя, следующего за указанным в заголовке Last-Event-ID.
+     *
+     * @param enabled     необязательный фильтр по признаку активности пользователя.
+     * @param role        необязательный фильтр по роли пользователя.
+     * @param afterId     необязательный идентификатор, после которого начинается выгрузка.
+     * @param lastEventId идентификатор последнего полученного события, используется, если after_id не задан.
+     * @return Flux<ServerSentEvent<UserDto>> с пользователями.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<UserDto>> streamUsers(@RequestParam(required = false) Boolean enabled,
+                                                      @RequestParam(required = false) UserRole role,
+                                                      @RequestParam(name = "after_id", required = false) Long afterId,
+                                                      @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        return userListingService.findUsers(enabled, role, afterId != null ? afterId : lastEventId)
+                .map(user -> ServerSentEvent.builder(mapper.map(user))
+                        .id(String.valueOf(user.getId()))
+                        .build());
+    }
+}
@@ -2,30 +2,49 @@ package com.amelinroman.webfluxsecurity.rest;
 
 import com.amelinroman.webfluxsecurity.dto.AuthRequestDto;
 import com.amelinroman.webfluxsecurity.dto.AuthResponseDto;
+import com.amelinroman.webfluxsecurity.dto.RefreshRequestDto;
 import com.amelinroman.webfluxsecurity.dto.UserDto;
 import com.amelinroman.webfluxsecurity.entity.UserEntity;
 import com.amelinroman.webfluxsecurity.mapper.UserMapper;
+import com.amelinroman.webfluxsecurity.security.AuthMetrics;
 import com.amelinroman.webfluxsecurity.security.CustomPrincipal;
 import com.amelinroman.webfluxsecurity.security.SecurityService;
+import com.amelinroman.webfluxsecurity.security.TokenClaims;
+import com.amelinroman.webfluxsecurity.security.TokenDetails;
+import com.amelinroman.webfluxsecurity.service.RefreshTokenService;
+import com.amelinroman.webfluxsecurity.service.UserInvalidationBus;
 import com.amelinroman.webfluxsecurity.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
 /**
  * @author Amelin Roman
  * AuthRestControllerV1 — это контроллер REST, отвечающий за аутентификацию и регистрацию пользователей.
- * Он предоставляет конечные точки API для регистрации, входа в систему и получения информации о пользователе.
+ * Он предоставляет конечные точки API для регистрации, входа в систему, обновления сессии, выхода из системы
+ * и получения информации о пользователе.
  */
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/auth")
 public class AuthRestControllerV1 {
 
+    private static final CacheControl USER_INFO_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
     private final SecurityService securityService;
     private final UserService userService;
     private final UserMapper mapper;
+    private final AuthMetrics authMetrics;
+    private final UserInvalidationBus userInvalidationBus;
+    private final RefreshTokenService refreshTokenService;
 
 
     /**
@@ -55,14 +74,40 @@ public class AuthRestControllerV1 {
     @PostMapping("/login")
     public Mono<AuthResponseDto> login(@RequestBody AuthRequestDto dto) {
         return securityService.authenticate(dto.getUsername(), dto.getPassword())
-                .flatMap(tokenDetails -> Mono.just(
-                        AuthResponseDto.builder()
-                                .userId(tokenDetails.getUserId())
-                                .token(tokenDetails.getToken())
-                                .issuedAt(tokenDetails.getIssuedAt())
-                                .expiresAt(tokenDetails.getExpiresAt())
-                                .build()
-                ));
+                .map(this::toResponse);
+    }
+
+    /**
+     * Обновляет сессию пользователя по refresh-токену без повторной проверки пароля.
+     * Предъявленный refresh-токен становится недействительным, в ответе возвращается новый.
+     *
+     * @param dto RefreshRequestDto, содержащий refresh-токен.
+     * @return Mono<AuthResponseDto> с новыми JWT-токеном и refresh-токеном.
+     */
+    @PostMapping("/refresh")
+    public Mono<AuthResponseDto> refresh(@RequestBody RefreshRequestDto dto) {
+        return securityService.refresh(dto.getRefreshToken())
+                .map(this::toResponse);
+    }
+
+    /**
+     * Выполняет выход пользователя из системы, отзывая токен, с которым выполнен запрос.
+     * Токен остается в списке отозванных до истечения срока его действия, отзыв рассылается всем экземплярам приложения.
+     * Если передан refresh-токен этого же пользователя, отзываются все refresh-токены его семейства.
+     *
+     * @param authentication Аутентификация, полученная из контекста безопасности вошедшего в систему пользователя.
+     * @param dto            необязательный RefreshRequestDto с refresh-токеном текущей сессии.
+     * @return Mono<Void>, завершающийся после отзыва токенов.
+     */
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> logout(Authentication authentication, @RequestBody(required = false) RefreshRequestDto dto) {
+        TokenClaims claims = (TokenClaims) authentication.getDetails();
+
+        return userInvalidationBus.revokeToken(claims.getUserId(), claims.getTokenId(), claims.getExpirationMillis())
+                .then(dto == null || dto.getRefreshToken() == null
+                        ? Mono.empty()
+                        : refreshTokenService.revoke(dto.getRefreshToken(), claims.getUserId()));
     }
 
     /**
@@ -70,15 +115,80 @@ public class AuthRestControllerV1 {
      * Метод использует объект Authentication для получения пользовательских данных, затем вызывает UserService.
      * для получения соответствующего объекта пользователя. Затем сущность пользователя сопоставляется с UserDto.
      * и вернулся как Mono.
+     * Ответ содержит ETag, вычисленный по идентификатору пользователя и времени последнего изменения. Если ETag совпадает
+     * со значением заголовка If-None-Match, возвращается ответ 304 без тела, и UserDto не создается и не сериализуется.
+     * Пользователь берется из кэша, поэтому неизменившийся профиль обычно отдается без обращения к базе данных.
      *
      * @param authentication Аутентификация, полученная из контекста безопасности вошедшего в систему пользователя.
-     * @return Mono<UserDto>, содержащий информацию о вошедшем в систему пользователе.
+     * @param ifNoneMatch    значение заголовка If-None-Match или null, если заголовок не передан.
+     * @return Mono<ResponseEntity<UserDto>>, содержащий информацию о вошедшем в систему пользователе или ответ 304.
      */
     @GetMapping("/info")
-    public Mono<UserDto> getUserInfo(Authentication authentication) {
+    public Mono<ResponseEntity<UserDto>> getUserInfo(Authentication authentication,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         CustomPrincipal customPrincipal = (CustomPrincipal) authentication.getPrincipal();
 
-        return userService.getUserById(customPrincipal.getId())
-                .map(mapper::map);
+        return authMetrics.timed(AuthMetrics.USER_INFO_LOOKUP, userService.getUserById(customPrincipal.getId()))
+                .map(user -> {
+                    String eTag = eTag(user);
+                    if (matches(ifNoneMatch, eTag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(eTag)
+                                .cacheControl(USER_INFO_CACHE_CONTROL)
+                                .build();
+                    }
+                    return ResponseEntity.ok()
+                            .eTag(eTag)
+                            .cacheControl(USER_INFO_CACHE_CONTROL)
+                            .body(mapper.map(user));
+                });
+    }
+
+    /**
+     * Вычисляет ETag пользователя по идентификатору и времени последнего изменения.
+     *
+     * @param user пользователь.
+     * @return ETag в кавычках.
+     */
+    static String eTag(UserEntity user) {
+        LocalDateTime updatedAt = user.getUpdatedAt() != null ? user.getUpdatedAt() : user.getCreatedAt();
+        long version = updatedAt == null ? 0
+                : updatedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + updatedAt.getNano();
+        return "\"" + user.getId() + "-" + Long.toString(version, 36) + "\"";
+    }
+
+    /**
+     * Проверяет, совпадает ли ETag с одним из значений заголовка If-None-Match.
+     * Сравнение слабое: префикс W/ не учитывается, значение * совпадает с любым ETag.
+     *
+     * @param ifNoneMatch значение заголовка If-None-Match или null.
+     * @param eTag        текущий ETag.
+     * @return true, если ресурс не изменился.
+     */
+    private static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AuthResponseDto toResponse(TokenDetails tokenDetails) {
+        return AuthResponseDto.builder()
+                .userId(tokenDetails.getUserId())
+                .token(tokenDetails.getToken())
+                .issuedAt(tokenDetails.getIssuedAt())
+                .expiresAt(tokenDetails.getExpiresAt())
+                .refreshToken(tokenDetails.getRefreshToken())
+                .refreshExpiresAt(tokenDetails.getRefreshExpiresAt())
+                .build();
     }
 }
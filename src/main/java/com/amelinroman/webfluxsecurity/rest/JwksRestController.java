@@ -0,0 +1,41 @@
+package com.amelinroman.webfluxsecurity.rest;
+
+import com.amelinroman.webfluxsecurity.security.SigningKeyStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * @author Amelin Roman
+ * JwksRestController — это контроллер REST, публикующий открытые ключи подписи JWT-токенов в формате JWKS.
+ * Другие сервисы загружают ключи по этому адресу и проверяют токены локально, без обращения к приложению.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksRestController {
+
+    private final SigningKeyStore signingKeyStore;
+
+    @Value("${jwt.jwks.max-age}")
+    private long maxAge;
+
+    /**
+     * Возвращает открытые ключи подписи. Документ формируется при обновлении набора ключей,
+     * а заголовок Cache-Control позволяет клиентам кэшировать его.
+     *
+     * @return Mono<ResponseEntity<String>> с документом JWKS.
+     */
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<String>> getJwks() {
+        return Mono.just(ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(maxAge)).cachePublic())
+                .body(signingKeyStore.getJwks()));
+    }
+}
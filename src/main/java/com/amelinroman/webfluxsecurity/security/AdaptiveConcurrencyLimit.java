@@ -0,0 +1,110 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Amelin Roman
+ * Класс AdaptiveConcurrencyLimit ограничивает количество одновременно выполняемых запросов и подстраивает
+ * предел по алгоритму AIMD: после быстрого запроса при загрузке не менее половины предела предел увеличивается на единицу,
+ * а после запроса, выполнявшегося дольше порога задержки или отклоненного из-за перегрузки, уменьшается в BACKOFF_RATIO раз.
+ * Предел хранится в AtomicLong как биты double и меняется операцией compareAndSet без блокировок.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limit;
+
+    /**
+     * Конструктор класса AdaptiveConcurrencyLimit.
+     *
+     * @param initialLimit     начальный предел одновременных запросов.
+     * @param minLimit         минимальный предел.
+     * @param maxLimit         максимальный предел.
+     * @param latencyThreshold задержка в миллисекундах, превышение которой уменьшает предел.
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long latencyThreshold) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Concurrency limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThreshold);
+        this.limit = new AtomicLong(Double.doubleToLongBits(initialLimit));
+    }
+
+    /**
+     * Пытается занять место для запроса.
+     *
+     * @return true, если количество выполняемых запросов меньше предела, иначе false.
+     */
+    public boolean tryAcquire() {
+        int currentLimit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= currentLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Освобождает место запроса и подстраивает предел по его задержке.
+     *
+     * @param latencyNanos время выполнения запроса в наносекундах.
+     * @param overloaded   признак того, что запрос был отклонен из-за перегрузки.
+     */
+    public void release(long latencyNanos, boolean overloaded) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        boolean decrease = overloaded || latencyNanos > latencyThresholdNanos;
+        while (true) {
+            long bits = limit.get();
+            double current = Double.longBitsToDouble(bits);
+            double next;
+            if (decrease) {
+                next = Math.max(minLimit, current * BACKOFF_RATIO);
+            } else if (inFlightBefore * 2 >= current) {
+                next = Math.min(maxLimit, current + 1);
+            } else {
+                return;
+            }
+            if (next == current || limit.compareAndSet(bits, Double.doubleToLongBits(next))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Освобождает место запроса без изменения предела, например если клиент отменил запрос.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Возвращает текущий предел одновременных запросов.
+     *
+     * @return предел одновременных запросов.
+     */
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limit.get());
+    }
+
+    /**
+     * Возвращает количество выполняемых запросов.
+     *
+     * @return количество выполняемых запросов.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,82 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * @author Amelin Roman
+ * Компонент AuthMetrics публикует метрики этапов аутентификации.
+ * Для каждого этапа записывается таймер auth.stage с тегами stage и outcome,
+ * для каждого процесса аутентификации в целом — счетчик auth.attempts с тегами flow и outcome.
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthMetrics {
+
+    public static final String HEADER_EXTRACTION = "header_extraction";
+    public static final String JWT_VERIFICATION = "jwt_verification";
+    public static final String USER_LOOKUP = "user_lookup";
+    public static final String REVOCATION_CHECK = "revocation_check";
+    public static final String USER_INFO_LOOKUP = "user_info_lookup";
+    public static final String LOGIN_USER_QUERY = "login_user_query";
+    public static final String PASSWORD_VERIFICATION = "password_verification";
+    public static final String REFRESH_TOKEN_ROTATION = "refresh_token_rotation";
+
+    public static final String BEARER_FLOW = "bearer";
+    public static final String LOGIN_FLOW = "login";
+    public static final String REFRESH_FLOW = "refresh";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Измеряет время выполнения этапа аутентификации от подписки до завершения.
+     * Результат определяется по значению, пустому завершению или ошибке этапа.
+     *
+     * @param stage имя этапа.
+     * @param mono  Mono, выполняющий этап.
+     * @return Mono с тем же результатом, что и исходный.
+     */
+    public <T> Mono<T> timed(String stage, Mono<T> mono) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return mono
+                    .doOnSuccess(value -> stop(sample, stage, value == null ? AuthOutcome.EMPTY : AuthOutcome.SUCCESS))
+                    .doOnError(e -> stop(sample, stage, AuthOutcome.of(e)))
+                    .doOnCancel(() -> stop(sample, stage, AuthOutcome.CANCELLED));
+        });
+    }
+
+    /**
+     * Подсчитывает результаты процесса аутентификации.
+     *
+     * @param flow имя процесса аутентификации.
+     * @param mono Mono, выполняющий процесс.
+     * @return Mono с тем же результатом, что и исходный.
+     */
+    public <T> Mono<T> counted(String flow, Mono<T> mono) {
+        return mono
+                .doOnSuccess(value -> count(flow, value == null ? AuthOutcome.EMPTY : AuthOutcome.SUCCESS))
+                .doOnError(e -> count(flow, AuthOutcome.of(e)));
+    }
+
+    private void stop(Timer.Sample sample, String stage, AuthOutcome outcome) {
+        sample.stop(Timer.builder("auth.stage")
+                .description("Время выполнения этапа аутентификации")
+                .tag("stage", stage)
+                .tag("outcome", outcome.getTag())
+                .register(meterRegistry));
+    }
+
+    private void count(String flow, AuthOutcome outcome) {
+        Counter.builder("auth.attempts")
+                .description("Количество попыток аутентификации по результату")
+                .tag("flow", flow)
+                .tag("outcome", outcome.getTag())
+                .register(meterRegistry)
+                .increment();
+    }
+}
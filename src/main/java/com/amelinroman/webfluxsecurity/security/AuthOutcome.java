@@ -0,0 +1,67 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.exception.ApiException;
+
+import java.util.Map;
+
+/**
+ * @author Amelin Roman
+ * Перечисление AuthOutcome содержит возможные результаты этапов аутентификации,
+ * которые используются как значение тега outcome в метриках.
+ */
+public enum AuthOutcome {
+    SUCCESS("success"),
+    EMPTY("empty"),
+    EXPIRED("expired"),
+    BAD_SIGNATURE("bad_signature"),
+    MALFORMED("malformed"),
+    DISABLED_USER("disabled_user"),
+    REVOKED("revoked"),
+    INVALID_USERNAME("invalid_username"),
+    INVALID_PASSWORD("invalid_password"),
+    INVALID_REFRESH_TOKEN("invalid_refresh_token"),
+    REFRESH_TOKEN_REUSED("refresh_token_reused"),
+    OVERLOADED("overloaded"),
+    THROTTLED("throttled"),
+    CANCELLED("cancelled"),
+    ERROR("error");
+
+    private static final Map<String, AuthOutcome> BY_ERROR_CODE = Map.ofEntries(
+            Map.entry("PROSELYTE_TOKEN_EXPIRED", EXPIRED),
+            Map.entry("PROSELYTE_INVALID_TOKEN_SIGNATURE", BAD_SIGNATURE),
+            Map.entry("PROSELYTE_MALFORMED_TOKEN", MALFORMED),
+            Map.entry("PROSELYTE_USER_DISABLED", DISABLED_USER),
+            Map.entry("PROSELYTE_USER_ACCOUNT_DISABLED", DISABLED_USER),
+            Map.entry("PROSELYTE_TOKEN_REVOKED", REVOKED),
+            Map.entry("PROSELYTE_INVALID_USERNAME", INVALID_USERNAME),
+            Map.entry("PROSELYTE_INVALID_PASSWORD", INVALID_PASSWORD),
+            Map.entry("PROSELYTE_INVALID_REFRESH_TOKEN", INVALID_REFRESH_TOKEN),
+            Map.entry("PROSELYTE_REFRESH_TOKEN_EXPIRED", EXPIRED),
+            Map.entry("PROSELYTE_REFRESH_TOKEN_REUSED", REFRESH_TOKEN_REUSED),
+            Map.entry("PROSELYTE_SERVICE_OVERLOADED", OVERLOADED),
+            Map.entry("PROSELYTE_TOO_MANY_REQUESTS", THROTTLED)
+    );
+
+    private final String tag;
+
+    AuthOutcome(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * Определяет результат этапа по ошибке, которой он завершился.
+     *
+     * @param error ошибка этапа аутентификации.
+     * @return результат, соответствующий коду ошибки, или ERROR для неизвестных ошибок.
+     */
+    public static AuthOutcome of(Throwable error) {
+        if (error instanceof ApiException apiException && apiException.getErrorCode() != null) {
+            return BY_ERROR_CODE.getOrDefault(apiException.getErrorCode(), ERROR);
+        }
+        return ERROR;
+    }
+}
@@ -1,6 +1,5 @@
 package com.amelinroman.webfluxsecurity.security;
 
-import com.amelinroman.webfluxsecurity.entity.UserEntity;
 import com.amelinroman.webfluxsecurity.exception.UnauthorizedException;
 import com.amelinroman.webfluxsecurity.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,24 +18,38 @@ public class AuthenticationManager implements ReactiveAuthenticationManager {
 
     @Autowired
     private UserService userService;
+    @Autowired
+    private AuthMetrics authMetrics;
+    @Autowired
+    private RevokedUserVersions revokedUserVersions;
 
     /**
      * Аутентифицирует пользователя на основе предоставленного объекта Authentication.
-     * Метод получает ID пользователя из CustomPrincipal, извлекает соответствующий
-     * UserEntity с помощью UserService и проверяет, включен ли пользователь.
+     * Метод получает ID пользователя из CustomPrincipal и с помощью UserService проверяет,
+     * включен ли пользователь, не загружая остальные данные пользователя.
      * Если пользователь включен, метод возвращает объект Authentication с пользовательскими данными,
      * в противном случае возникает ошибка UnauthorizedException.
+     * В режиме без обращения к базе данных метод доверяет Claims токена и проверяет только,
+     * не отозвана ли версия безопасности пользователя.
      *
      * @param authentication объект Authentication, содержащий данные пользователя.
      * @return Mono<Authentication> с аутентификационной информацией пользователя.
-     * @throws UnauthorizedException если пользователь отключен.
+     * @throws UnauthorizedException если пользователь отключен или токен отозван.
      */
     @Override
     public Mono<Authentication> authenticate(Authentication authentication) {
+        if (revokedUserVersions.isEnabled() && authentication.getDetails() instanceof TokenClaims claims) {
+            Mono<Authentication> check = revokedUserVersions.isRevoked(claims.getUserId(), claims.getSecurityVersion())
+                    ? Mono.error(new UnauthorizedException("Token revoked", "PROSELYTE_TOKEN_REVOKED"))
+                    : Mono.just(authentication);
+            return authMetrics.counted(AuthMetrics.BEARER_FLOW, authMetrics.timed(AuthMetrics.REVOCATION_CHECK, check));
+        }
+
         CustomPrincipal principal = (CustomPrincipal) authentication.getPrincipal();
-        return userService.getUserById(principal.getId())
-                .filter(UserEntity::isEnabled)
-                .switchIfEmpty(Mono.error(new UnauthorizedException("User disabled")))
+        Mono<Authentication> lookup = userService.isUserEnabled(principal.getId())
+                .filter(Boolean::booleanValue)
+                .switchIfEmpty(Mono.error(new UnauthorizedException("User disabled", "PROSELYTE_USER_DISABLED")))
                 .map(user -> authentication);
+        return authMetrics.counted(AuthMetrics.BEARER_FLOW, authMetrics.timed(AuthMetrics.USER_LOOKUP, lookup));
     }
 }
@@ -19,6 +19,7 @@ import java.util.function.Function;
 public class BearerTokenServerAuthenticationConverter implements ServerAuthenticationConverter {
 
     private final JwtHandler jwtHandler;
+    private final AuthMetrics authMetrics;
     private static final String BEARER_PREFIX = "Bearer ";
     private static final Function<String, Mono<String>> getBearerValue = authValue -> Mono.justOrEmpty(authValue.substring(BEARER_PREFIX.length()));
 
@@ -26,15 +27,15 @@ public class BearerTokenServerAuthenticationConverter implements ServerAuthentic
      * Конвертирует аутентификацию с помощью предоставленного ServerWebExchange.
      * Извлекает токен из заголовка авторизации, проверяет его с помощью JwtHandler
      * и создает объект UserAuthenticationBearer на основе проверенного токена.
+     * Время извлечения заголовка и проверки токена записывается в метрики.
      *
      * @param exchange ServerWebExchange содержащий информацию о клиентском запросе.
      * @return Mono<Authentication> с аутентификационной информацией пользователя.
      */
     @Override
     public Mono<Authentication> convert(ServerWebExchange exchange) {
-        return extractHeader(exchange)
-                .flatMap(getBearerValue)
-                .flatMap(jwtHandler::check)
+        return authMetrics.timed(AuthMetrics.HEADER_EXTRACTION, extractHeader(exchange).flatMap(getBearerValue))
+                .flatMap(token -> authMetrics.timed(AuthMetrics.JWT_VERIFICATION, jwtHandler.check(token)))
                 .flatMap(UserAuthenticationBearer::create);
     }
 
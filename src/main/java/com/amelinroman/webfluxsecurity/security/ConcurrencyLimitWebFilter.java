@@ -0,0 +1,166 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author Amelin Roman
+ * Фильтр ConcurrencyLimitWebFilter ограничивает количество одновременно выполняемых запросов отдельно для каждого
+ * класса маршрутов: auth — /login и /register, которые хэшируют пароль, import — массовая регистрация пользователей,
+ * которая хэширует пароли в том же пуле, и default — все остальные маршруты.
+ * Пределы подстраиваются по задержке запросов в AdaptiveConcurrencyLimit. Запрос сверх предела сразу отклоняется
+ * с ответом 503 и заголовком Retry-After, поэтому при перегрузке лишние запросы входа не копятся в очереди хэширования,
+ * а запросы /info сохраняют свой предел.
+ * Маршруты из concurrency.excluded-paths не ограничиваются: проверки готовности должны отвечать и при перегрузке,
+ * а потоковая выгрузка пользователей ограничена размером страницы и не должна уменьшать предел своей длительностью.
+ * Пути сопоставляются шаблонами PathPattern, как при выборе обработчика запроса, поэтому варианты пути
+ * с закодированными символами или matrix-параметрами попадают в тот же класс маршрутов.
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimitWebFilter implements WebFilter, Ordered {
+
+    static final String AUTH_ROUTE_CLASS = "auth";
+    static final String IMPORT_ROUTE_CLASS = "import";
+    static final String DEFAULT_ROUTE_CLASS = "default";
+
+    private final List<PathPattern> excludedPaths;
+    private final String retryAfter;
+    private final List<RouteClass> routeClasses;
+    private final RouteClass other;
+
+    /**
+     * Конструктор класса ConcurrencyLimitWebFilter.
+     *
+     * @param excludedPaths шаблоны путей, которые не ограничиваются.
+     * @param retryAfter    значение заголовка Retry-After в секундах.
+     * @param environment   окружение, из которого читаются пути и пределы классов маршрутов.
+     * @param meterRegistry реестр метрик.
+     */
+    public ConcurrencyLimitWebFilter(@Value("${concurrency.excluded-paths}") String[] excludedPaths,
+                                     @Value("${concurrency.retry-after}") long retryAfter,
+                                     Environment environment,
+                                     MeterRegistry meterRegistry) {
+        this.excludedPaths = patterns(excludedPaths);
+        this.retryAfter = Long.toString(retryAfter);
+        this.routeClasses = List.of(
+                new RouteClass(AUTH_ROUTE_CLASS, environment, meterRegistry),
+                new RouteClass(IMPORT_ROUTE_CLASS, environment, meterRegistry));
+        this.other = new RouteClass(DEFAULT_ROUTE_CLASS, environment, meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        if (matches(excludedPaths, path)) {
+            return chain.filter(exchange);
+        }
+
+        RouteClass routeClass = routeClass(path);
+        AdaptiveConcurrencyLimit limit = routeClass.limit;
+        if (!limit.tryAcquire()) {
+            routeClass.shed.increment();
+            log.debug("IN filter - {} concurrency limit {} reached, rejecting request to {}", routeClass.name, limit.getLimit(), path.value());
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, retryAfter);
+            return response.setComplete();
+        }
+
+        long startedAt = System.nanoTime();
+        return chain.filter(exchange)
+                .doOnSuccess(v -> limit.release(System.nanoTime() - startedAt,
+                        exchange.getResponse().getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE))
+                .doOnError(e -> limit.release(System.nanoTime() - startedAt, e instanceof ServiceOverloadedException))
+                .doOnCancel(limit::release);
+    }
+
+    /**
+     * Выполняется после LoginThrottleWebFilter и раньше цепочки фильтров Spring Security,
+     * поэтому проверка JWT-токена тоже входит в ограниченный участок.
+     */
+    @Override
+    public int getOrder() {
+        return -150;
+    }
+
+    private RouteClass routeClass(PathContainer path) {
+        for (RouteClass routeClass : routeClasses) {
+            if (matches(routeClass.paths, path)) {
+                return routeClass;
+            }
+        }
+        return other;
+    }
+
+    private static boolean matches(List<PathPattern> patterns, PathContainer path) {
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<PathPattern> patterns(String[] paths) {
+        return Arrays.stream(paths)
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    /**
+     * Пути, предел и метрики класса маршрутов. Шаблоны путей и пределы читаются из свойств concurrency.&lt;класс&gt;.*,
+     * для класса default пути не задаются.
+     */
+    private static class RouteClass {
+        private final String name;
+        private final List<PathPattern> paths;
+        private final AdaptiveConcurrencyLimit limit;
+        private final Counter shed;
+
+        private RouteClass(String name, Environment environment, MeterRegistry meterRegistry) {
+            String prefix = "concurrency." + name + ".";
+            this.name = name;
+            this.paths = patterns(environment.getProperty(prefix + "paths", String[].class, new String[0]));
+            this.limit = new AdaptiveConcurrencyLimit(
+                    environment.getRequiredProperty(prefix + "initial-limit", Integer.class),
+                    environment.getRequiredProperty(prefix + "min-limit", Integer.class),
+                    environment.getRequiredProperty(prefix + "max-limit", Integer.class),
+                    environment.getRequiredProperty(prefix + "latency-threshold", Long.class));
+            Gauge.builder("http.server.concurrency.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Текущий предел одновременных запросов класса маршрутов")
+                    .tag("route_class", name)
+                    .register(meterRegistry);
+            Gauge.builder("http.server.concurrency.in_flight", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Количество выполняемых запросов класса маршрутов")
+                    .tag("route_class", name)
+                    .register(meterRegistry);
+            this.shed = Counter.builder("http.server.concurrency.shed")
+                    .description("Количество запросов, отклоненных из-за предела одновременных запросов")
+                    .tag("route_class", name)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,39 +1,48 @@
 package com.amelinroman.webfluxsecurity.security;
 
 import com.amelinroman.webfluxsecurity.exception.UnauthorizedException;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import reactor.core.publisher.Mono;
 
-import java.util.Base64;
-import java.util.Date;
-
 /**
  * @author Amelin Roman
- * Класс JwtHandler отвечает за проверку JWT-токенов, используя секретный ключ.
+ * Класс JwtHandler отвечает за проверку JWT-токенов с помощью JwtVerifier.
+ * Отозванные токены отклоняются, даже если их проверка уже закэширована.
  */
 public class JwtHandler {
 
-    private final String secret;
+    private final JwtVerifier verifier;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenDenylist tokenDenylist;
 
     /**
      * Конструктор класса JwtHandler.
      *
-     * @param secret секретный ключ для верификации JWT-токенов.
+     * @param verifier           проверка подписи, срока действия и разбор Claims JWT-токенов.
+     * @param verifiedTokenCache кэш результатов успешной проверки токенов.
+     * @param tokenDenylist      список отозванных токенов.
      */
-    public JwtHandler(String secret) {
-        this.secret = secret;
+    public JwtHandler(JwtVerifier verifier, VerifiedTokenCache verifiedTokenCache, TokenDenylist tokenDenylist) {
+        this.verifier = verifier;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenDenylist = tokenDenylist;
     }
 
     /**
      * Проверяет JWT-токен и возвращает результат проверки.
+     * Результат повторной проверки того же токена берется из кэша, после чего токен сверяется со списком отозванных.
      *
      * @param accessToken JWT-токен, который требуется проверить.
      * @return Mono<VerificationResult> содержащий результат проверки токена.
      */
     public Mono<VerificationResult> check(String accessToken) {
-        return Mono.just(verify(accessToken))
-                .onErrorResume(e -> Mono.error(new UnauthorizedException(e.getMessage())));
+        return Mono.fromCallable(() -> {
+                    VerificationResult result = verifiedTokenCache.get(accessToken, this::verify);
+                    if (tokenDenylist.isRevoked(result.claims.getTokenId())) {
+                        throw new UnauthorizedException("Token revoked", "PROSELYTE_TOKEN_REVOKED");
+                    }
+                    return result;
+                })
+                .onErrorResume(e -> Mono.error(e instanceof UnauthorizedException ? e : new UnauthorizedException(e.getMessage())));
     }
 
     /**
@@ -41,30 +50,10 @@ public class JwtHandler {
      *
      * @param token JWT-токен, который требуется проверить.
      * @return объект VerificationResult с результатами проверки токена.
-     * @throws RuntimeException если токен истек.
+     * @throws UnauthorizedException если токен имеет неверный формат, неверную подпись или истек.
      */
     private VerificationResult verify(String token) {
-        Claims claims = getClaimsFromToken(token);
-        final Date expirationDate = claims.getExpiration();
-
-        if (expirationDate.before(new Date())) {
-            throw new RuntimeException("Token expired");
-        }
-
-        return new VerificationResult(claims, token);
-    }
-
-    /**
-     * Извлекает Claims из JWT-токена.
-     *
-     * @param token JWT-токен, из которого требуется извлечь Claims.
-     * @return объект Claims, содержащий информацию о привилегиях и атрибутах токена.
-     */
-    private Claims getClaimsFromToken(String token) {
-        return Jwts.parser()
-                .setSigningKey(Base64.getEncoder().encodeToString(secret.getBytes()))
-                .parseClaimsJws(token)
-                .getBody();
+        return new VerificationResult(verifier.verify(token), token);
     }
 
     /**
@@ -72,16 +61,16 @@ public class JwtHandler {
      * включая Claims и сам токен.
      */
     public static class VerificationResult {
-        public Claims claims;
+        public TokenClaims claims;
         public String token;
 
         /**
          * Конструктор класса VerificationResult.
          *
-         * @param claims объект Claims, содержащий информацию о привилегиях и атрибутах токена.
+         * @param claims объект TokenClaims, содержащий информацию о привилегиях и атрибутах токена.
          * @param token JWT-токен, который был проверен.
          */
-        public VerificationResult(Claims claims, String token) {
+        public VerificationResult(TokenClaims claims, String token) {
             this.claims = claims;
             this.token = token;
         }
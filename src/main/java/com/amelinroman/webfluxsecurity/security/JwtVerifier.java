@@ -0,0 +1,240 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import com.amelinroman.webfluxsecurity.exception.UnauthorizedException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * @author Amelin Roman
+ * Класс JwtVerifier проверяет JWT-токены с минимальным количеством аллокаций.
+ * Токены, подписанные асимметричными ключами (RS256, ES256, EdDSA), проверяются открытым ключом,
+ * найденным в SigningKeyStore по kid из заголовка. Токены HS256, выпущенные до перехода на асимметричную подпись,
+ * принимаются, пока это разрешено настройкой: ключ HMAC вычисляется один раз при создании,
+ * экземпляры Mac переиспользуются в пределах потока.
+ * Из payload потоковым парсером извлекаются только используемые Claims: sub, role, username, exp, ver и jti.
+ */
+public class JwtVerifier {
+
+    private static final String HMAC_SHA_256 = "HmacSHA256";
+    private static final String HS256 = "HS256";
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+    private final ThreadLocal<Mac> macs;
+    private final ThreadLocal<byte[]> signatures = ThreadLocal.withInitial(() -> new byte[SIGNATURE_LENGTH]);
+    private final SigningKeyStore signingKeyStore;
+    private final boolean acceptHs256;
+
+    /**
+     * Конструктор класса JwtVerifier.
+     *
+     * @param secret          секретный ключ для верификации JWT-токенов HS256.
+     * @param signingKeyStore хранилище ключей подписи для верификации асимметрично подписанных токенов.
+     * @param acceptHs256     признак того, что токены HS256 все еще принимаются.
+     */
+    public JwtVerifier(String secret, SigningKeyStore signingKeyStore, boolean acceptHs256) {
+        this.signingKeyStore = signingKeyStore;
+        this.acceptHs256 = acceptHs256;
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_SHA_256);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_SHA_256);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+    }
+
+    /**
+     * Проверяет подпись и срок действия JWT-токена и извлекает из него Claims.
+     *
+     * @param token JWT-токен, который требуется проверить.
+     * @return объект TokenClaims с Claims токена.
+     * @throws UnauthorizedException если токен имеет неверный формат, неверную подпись или истек.
+     */
+    public TokenClaims verify(String token) {
+        int headerEnd = token.indexOf('.');
+        int payloadEnd = headerEnd < 0 ? -1 : token.indexOf('.', headerEnd + 1);
+        if (headerEnd <= 0 || payloadEnd < 0 || token.indexOf('.', payloadEnd + 1) >= 0) {
+            throw malformed("Invalid token structure");
+        }
+
+        byte[] bytes = token.getBytes(StandardCharsets.US_ASCII);
+        Header header = parseHeader(decode(bytes, 0, headerEnd));
+        if (HS256.equals(header.algorithm) && acceptHs256) {
+            checkHmacSignature(bytes, payloadEnd);
+        } else {
+            checkSignature(header, bytes, payloadEnd);
+        }
+
+        TokenClaims claims = parseClaims(decode(bytes, headerEnd + 1, payloadEnd));
+        if (claims.getExpirationMillis() < System.currentTimeMillis()) {
+            throw new UnauthorizedException("Token expired", "PROSELYTE_TOKEN_EXPIRED");
+        }
+        return claims;
+    }
+
+    /**
+     * Проверяет подпись токена открытым ключом, найденным по kid. Алгоритм из заголовка должен совпадать
+     * с алгоритмом ключа, поэтому подменить алгоритм в заголовке нельзя.
+     *
+     * @param header     заголовок токена.
+     * @param bytes      токен в виде байтов.
+     * @param payloadEnd индекс точки, отделяющей payload от подписи.
+     */
+    private void checkSignature(Header header, byte[] bytes, int payloadEnd) {
+        SigningKey key = signingKeyStore.findByKid(header.kid);
+        if (key == null || !key.getAlgorithm().name().equals(header.algorithm)) {
+            throw new UnauthorizedException("Unknown token signing key", "PROSELYTE_INVALID_TOKEN_SIGNATURE");
+        }
+        ByteBuffer signature = decode(bytes, payloadEnd + 1, bytes.length);
+        byte[] signatureBytes = new byte[signature.remaining()];
+        signature.get(signatureBytes);
+        if (!key.verify(bytes, 0, payloadEnd, signatureBytes)) {
+            throw new UnauthorizedException("Invalid token signature", "PROSELYTE_INVALID_TOKEN_SIGNATURE");
+        }
+    }
+
+    /**
+     * Сравнивает подпись токена с HMAC, вычисленным над заголовком и payload, за постоянное время.
+     *
+     * @param bytes      токен в виде байтов.
+     * @param payloadEnd индекс точки, отделяющей payload от подписи.
+     */
+    private void checkHmacSignature(byte[] bytes, int payloadEnd) {
+        ByteBuffer actual = decode(bytes, payloadEnd + 1, bytes.length);
+        byte[] expected = signatures.get();
+        Mac mac = macs.get();
+        try {
+            mac.update(bytes, 0, payloadEnd);
+            mac.doFinal(expected, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+
+        int diff = actual.remaining() ^ SIGNATURE_LENGTH;
+        for (int i = 0; i < SIGNATURE_LENGTH && i < actual.remaining(); i++) {
+            diff |= expected[i] ^ actual.get(actual.position() + i);
+        }
+        if (diff != 0) {
+            throw new UnauthorizedException("Invalid token signature", "PROSELYTE_INVALID_TOKEN_SIGNATURE");
+        }
+    }
+
+    /**
+     * Извлекает из заголовка токена алгоритм подписи и идентификатор ключа.
+     *
+     * @param header декодированный заголовок токена.
+     * @return алгоритм и идентификатор ключа.
+     */
+    private Header parseHeader(ByteBuffer header) {
+        try (JsonParser parser = createParser(header)) {
+            String algorithm = null;
+            String kid = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                switch (name) {
+                    case "alg" -> algorithm = parser.getValueAsString();
+                    case "kid" -> kid = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+            if (algorithm == null || HS256.equals(algorithm) && !acceptHs256) {
+                throw malformed("Unsupported token algorithm");
+            }
+            return new Header(algorithm, kid);
+        } catch (IOException e) {
+            throw malformed("Invalid token header");
+        }
+    }
+
+    /**
+     * Извлекает из payload токена используемые приложением Claims, пропуская остальные.
+     *
+     * @param payload декодированный payload токена.
+     * @return объект TokenClaims с Claims токена.
+     */
+    private TokenClaims parseClaims(ByteBuffer payload) {
+        String subject = null;
+        String role = null;
+        String username = null;
+        long expiration = -1;
+        int securityVersion = 0;
+        String tokenId = null;
+
+        try (JsonParser parser = createParser(payload)) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                switch (name) {
+                    case "sub" -> subject = parser.getValueAsString();
+                    case "role" -> role = parser.getValueAsString();
+                    case "username" -> username = parser.getValueAsString();
+                    case "exp" -> expiration = parser.getValueAsLong(-1);
+                    case "ver" -> securityVersion = parser.getValueAsInt(0);
+                    case "jti" -> tokenId = parser.getValueAsString();
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw malformed("Invalid token payload");
+        }
+
+        if (subject == null || role == null || expiration < 0) {
+            throw malformed("Missing token claims");
+        }
+        try {
+            return new TokenClaims(Long.parseLong(subject), UserRole.valueOf(role), username, expiration, securityVersion, tokenId);
+        } catch (IllegalArgumentException e) {
+            throw malformed("Invalid token claims");
+        }
+    }
+
+    private static JsonParser createParser(ByteBuffer json) throws IOException {
+        JsonParser parser = JSON_FACTORY.createParser(json.array(), json.arrayOffset() + json.position(), json.remaining());
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            parser.close();
+            throw malformed("Invalid token structure");
+        }
+        return parser;
+    }
+
+    private static ByteBuffer decode(byte[] bytes, int from, int to) {
+        try {
+            return BASE64_URL_DECODER.decode(ByteBuffer.wrap(bytes, from, to - from));
+        } catch (IllegalArgumentException e) {
+            throw malformed("Invalid token encoding");
+        }
+    }
+
+    private static UnauthorizedException malformed(String message) {
+        return new UnauthorizedException(message, "PROSELYTE_MALFORMED_TOKEN");
+    }
+
+    /**
+     * Алгоритм подписи (alg) и идентификатор ключа (kid) из заголовка токена.
+     */
+    private static class Header {
+        private final String algorithm;
+        private final String kid;
+
+        Header(String algorithm, String kid) {
+            this.algorithm = algorithm;
+            this.kid = kid;
+        }
+    }
+}
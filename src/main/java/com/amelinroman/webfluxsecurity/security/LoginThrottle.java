@@ -0,0 +1,87 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * @author Amelin Roman
+ * Компонент LoginThrottle ограничивает частоту попыток входа по имени пользователя и по адресу клиента.
+ * Для каждого ключа создается свой TokenBucket. Количество ключей ограничено, а ключи,
+ * к которым давно не обращались, удаляются, поэтому память не растет при переборе имен и адресов.
+ */
+@Component
+public class LoginThrottle {
+
+    private final Cache<String, TokenBucket> usernameBuckets;
+    private final Cache<String, TokenBucket> addressBuckets;
+    private final int usernameCapacity;
+    private final double usernameRefillPerMinute;
+    private final int addressCapacity;
+    private final double addressRefillPerMinute;
+
+    /**
+     * Конструктор класса LoginThrottle.
+     *
+     * @param usernameCapacity        максимальное количество попыток подряд для одного имени пользователя.
+     * @param usernameRefillPerMinute количество попыток в минуту для одного имени пользователя.
+     * @param addressCapacity         максимальное количество попыток подряд для одного адреса.
+     * @param addressRefillPerMinute  количество попыток в минуту для одного адреса.
+     * @param maximumKeys             максимальное количество отслеживаемых ключей каждого типа.
+     * @param idleExpiration          время в секундах, после которого неиспользуемый ключ удаляется.
+     */
+    public LoginThrottle(@Value("${login.throttle.username.capacity}") int usernameCapacity,
+                         @Value("${login.throttle.username.refill-per-minute}") double usernameRefillPerMinute,
+                         @Value("${login.throttle.address.capacity}") int addressCapacity,
+                         @Value("${login.throttle.address.refill-per-minute}") double addressRefillPerMinute,
+                         @Value("${login.throttle.maximum-keys}") long maximumKeys,
+                         @Value("${login.throttle.idle-expiration}") long idleExpiration) {
+        this.usernameCapacity = usernameCapacity;
+        this.usernameRefillPerMinute = usernameRefillPerMinute;
+        this.addressCapacity = addressCapacity;
+        this.addressRefillPerMinute = addressRefillPerMinute;
+        this.usernameBuckets = buckets(maximumKeys, idleExpiration);
+        this.addressBuckets = buckets(maximumKeys, idleExpiration);
+    }
+
+    /**
+     * Пытается списать попытку входа для имени пользователя.
+     *
+     * @param username имя пользователя.
+     * @return true, если попытка разрешена, иначе false.
+     */
+    public boolean tryAcquireUsername(String username) {
+        return usernameBuckets.get(String.valueOf(username), key -> new TokenBucket(usernameCapacity, usernameRefillPerMinute))
+                .tryAcquire();
+    }
+
+    /**
+     * Пытается списать попытку входа для адреса клиента.
+     *
+     * @param address адрес клиента.
+     * @return true, если попытка разрешена, иначе false.
+     */
+    public boolean tryAcquireAddress(String address) {
+        return addressBuckets.get(address, key -> new TokenBucket(addressCapacity, addressRefillPerMinute))
+                .tryAcquire();
+    }
+
+    /**
+     * Возвращает время в секундах, через которое для адреса клиента появится новая попытка входа.
+     *
+     * @return значение для заголовка Retry-After.
+     */
+    public long getAddressRetryAfterSeconds() {
+        return (long) Math.ceil(60 / addressRefillPerMinute);
+    }
+
+    private static Cache<String, TokenBucket> buckets(long maximumKeys, long idleExpiration) {
+        return Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofSeconds(idleExpiration))
+                .build();
+    }
+}
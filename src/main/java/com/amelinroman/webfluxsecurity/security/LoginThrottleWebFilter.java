@@ -0,0 +1,73 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * @author Amelin Roman
+ * Фильтр LoginThrottleWebFilter ограничивает частоту запросов к /api/v1/auth/login по адресу клиента.
+ * Фильтр выполняется до цепочки Spring Security, поэтому отклоненный запрос с ответом 429
+ * не доходит ни до базы данных, ни до хэширования пароля.
+ * Путь сопоставляется шаблоном PathPattern, как при выборе обработчика запроса, поэтому варианты пути
+ * с закодированными символами или matrix-параметрами, которые дошли бы до входа, тоже ограничиваются.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginThrottleWebFilter implements WebFilter, Ordered {
+
+    private static final PathPattern LOGIN_PATH = PathPatternParser.defaultInstance.parse("/api/v1/auth/login");
+    private static final String UNKNOWN_ADDRESS = "unknown";
+
+    private final LoginThrottle loginThrottle;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.POST || !LOGIN_PATH.matches(request.getPath().pathWithinApplication())) {
+            return chain.filter(exchange);
+        }
+
+        String address = clientAddress(request);
+        if (loginThrottle.tryAcquireAddress(address)) {
+            return chain.filter(exchange);
+        }
+
+        log.warn("IN filter - too many login attempts from address: {}", address);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(loginThrottle.getAddressRetryAfterSeconds()));
+        return response.setComplete();
+    }
+
+    /**
+     * Выполняется раньше цепочки фильтров Spring Security.
+     */
+    @Override
+    public int getOrder() {
+        return -200;
+    }
+
+    private static String clientAddress(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null || remoteAddress.getAddress() == null) {
+            return UNKNOWN_ADDRESS;
+        }
+        return remoteAddress.getAddress().getHostAddress();
+    }
+}
@@ -1,12 +1,16 @@
 package com.amelinroman.webfluxsecurity.security;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Base64;
 
@@ -14,41 +18,85 @@ import java.util.Base64;
  * @author Amelin Roman
  * Компонент PBFDK2Encoder реализует интерфейс PasswordEncoder для кодирования и сравнения
  * паролей с использованием PBKDF2 и HmacSHA512.
+ * Пароли кодируются в самоописывающем формате {@code $pbkdf2-sha512$i=<итерации>,l=<длина ключа в битах>$<соль>$<хэш>}
+ * со случайной солью для каждого пароля. Количество итераций подбирается при запуске так, чтобы вычисление хэша
+ * занимало заданное время на текущем оборудовании, но не меньше заданного минимума.
+ * Пароли в прежнем формате (хэш без параметров с общей солью) по-прежнему проверяются и считаются устаревшими,
+ * так же как и хэши с меньшим количеством итераций или другой длиной ключа.
  */
-
+@Slf4j
 @Component
 public class PBFDK2Encoder implements PasswordEncoder {
 
-    @Value("${jwt.password.encoder.secret}")
-    private String secret;
-    @Value("${jwt.password.encoder.iterator}")
-    private Integer iterator;
-    @Value("${jwt.password.encoder.keylength}")
-    private Integer keyLength;
-
     private static final String SECRET_KEY_INSTANCE = "PBKDF2WithHmacSHA512";
+    private static final String PREFIX = "$pbkdf2-sha512$";
+    private static final int SALT_LENGTH = 16;
+    private static final int CALIBRATION_ITERATIONS = 10_000;
+    private static final int CALIBRATION_ROUNDS = 5;
+
+    private static final Base64.Encoder BASE64_ENCODER = Base64.getEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_DECODER = Base64.getDecoder();
+    private static final ThreadLocal<SecretKeyFactory> SECRET_KEY_FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return SecretKeyFactory.getInstance(SECRET_KEY_INSTANCE);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final byte[] legacySalt;
+    private final int legacyIterations;
+    private final int keyLength;
+    private final int iterations;
+
+    /**
+     * Конструктор класса PBFDK2Encoder. Подбирает количество итераций под целевое время вычисления хэша.
+     *
+     * @param legacySecret     общая соль паролей в прежнем формате.
+     * @param legacyIterations количество итераций паролей в прежнем формате.
+     * @param keyLength        длина ключа в битах.
+     * @param targetLatency    целевое время вычисления хэша в миллисекундах; 0 отключает подбор.
+     * @param minIterations    минимальное количество итераций.
+     */
+    public PBFDK2Encoder(@Value("${jwt.password.encoder.secret}") String legacySecret,
+                         @Value("${jwt.password.encoder.iterator}") int legacyIterations,
+                         @Value("${jwt.password.encoder.keylength}") int keyLength,
+                         @Value("${jwt.password.encoder.target-latency}") long targetLatency,
+                         @Value("${jwt.password.encoder.min-iterations}") int minIterations) {
+        this.legacySalt = legacySecret.getBytes();
+        this.legacyIterations = legacyIterations;
+        this.keyLength = keyLength;
+        this.iterations = Math.max(minIterations, calibrate(targetLatency, keyLength));
+        log.info("IN PBFDK2Encoder - using {} iterations for target latency {} ms", iterations, targetLatency);
+    }
+
+    /**
+     * Возвращает количество итераций, с которым кодируются новые пароли.
+     *
+     * @return количество итераций.
+     */
+    public int getIterations() {
+        return iterations;
+    }
 
     /**
-     * Кодирует пароль с использованием алгоритма PBKDF2 и HmacSHA512.
+     * Кодирует пароль со случайной солью с использованием алгоритма PBKDF2 и HmacSHA512.
      *
      * @param rawPassword некодированный пароль, который требуется закодировать.
-     * @return закодированная строка пароля.
-     * @throws RuntimeException если алгоритм шифрования недоступен или ключ некорректен.
+     * @return закодированная строка пароля в формате {@code $pbkdf2-sha512$i=...,l=...$<соль>$<хэш>}.
      */
     @Override
     public String encode(CharSequence rawPassword) {
-        try {
-            byte[] result = SecretKeyFactory.getInstance(SECRET_KEY_INSTANCE)
-                    .generateSecret(new PBEKeySpec(rawPassword.toString().toCharArray(),
-                            secret.getBytes(), iterator, keyLength)).getEncoded();
-            return Base64.getEncoder().encodeToString(result);
-        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-            throw new RuntimeException();
-        }
+        byte[] salt = new byte[SALT_LENGTH];
+        secureRandom.nextBytes(salt);
+        byte[] hash = hash(rawPassword, salt, iterations, keyLength);
+        return PREFIX + "i=" + iterations + ",l=" + keyLength + "$"
+                + BASE64_ENCODER.encodeToString(salt) + "$" + BASE64_ENCODER.encodeToString(hash);
     }
 
     /**
-     * Сравнивает некодированный пароль с закодированным паролем.
+     * Сравнивает некодированный пароль с закодированным паролем за время, не зависящее от совпадающей части хэша.
      *
      * @param rawPassword     некодированный пароль для проверки.
      * @param encodedPassword закодированный пароль для сравнения.
@@ -56,6 +104,114 @@ public class PBFDK2Encoder implements PasswordEncoder {
      */
     @Override
     public boolean matches(CharSequence rawPassword, String encodedPassword) {
-        return encode(rawPassword).equals(encodedPassword);
+        if (encodedPassword == null) {
+            return false;
+        }
+        try {
+            if (!encodedPassword.startsWith(PREFIX)) {
+                return MessageDigest.isEqual(BASE64_DECODER.decode(encodedPassword),
+                        hash(rawPassword, legacySalt, legacyIterations, keyLength));
+            }
+            EncodedPassword encoded = EncodedPassword.parse(encodedPassword);
+            return MessageDigest.isEqual(encoded.hash,
+                    hash(rawPassword, encoded.salt, encoded.iterations, encoded.keyLength));
+        } catch (IllegalArgumentException e) {
+            log.warn("IN matches - malformed encoded password");
+            return false;
+        }
+    }
+
+    /**
+     * Проверяет, нужно ли перекодировать пароль: пароль в прежнем формате, с меньшим количеством итераций
+     * или с другой длиной ключа перекодируется после успешного входа.
+     *
+     * @param encodedPassword закодированный пароль.
+     * @return true, если пароль закодирован с устаревшими параметрами.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || !encodedPassword.startsWith(PREFIX)) {
+            return true;
+        }
+        try {
+            EncodedPassword encoded = EncodedPassword.parse(encodedPassword);
+            return encoded.iterations < iterations || encoded.keyLength != keyLength;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static byte[] hash(CharSequence rawPassword, byte[] salt, int iterations, int keyLength) {
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toString().toCharArray(), salt, iterations, keyLength);
+        try {
+            return SECRET_KEY_FACTORY.get().generateSecret(spec).getEncoded();
+        } catch (InvalidKeySpecException e) {
+            throw new IllegalArgumentException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Оценивает количество итераций, при котором вычисление хэша занимает целевое время.
+     * Берется наименьшее время из нескольких замеров, чтобы исключить влияние прогрева JIT и паузы сборщика мусора.
+     */
+    private static int calibrate(long targetLatency, int keyLength) {
+        if (targetLatency <= 0) {
+            return 0;
+        }
+        byte[] salt = new byte[SALT_LENGTH];
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long startedAt = System.nanoTime();
+            hash("calibration", salt, CALIBRATION_ITERATIONS, keyLength);
+            best = Math.min(best, System.nanoTime() - startedAt);
+        }
+        long iterations = CALIBRATION_ITERATIONS * targetLatency * 1_000_000L / Math.max(best, 1L);
+        return (int) Math.min(Integer.MAX_VALUE, iterations / 1000 * 1000);
+    }
+
+    /**
+     * Разобранный пароль в формате {@code $pbkdf2-sha512$i=...,l=...$<соль>$<хэш>}.
+     */
+    private static class EncodedPassword {
+        private final int iterations;
+        private final int keyLength;
+        private final byte[] salt;
+        private final byte[] hash;
+
+        private EncodedPassword(int iterations, int keyLength, byte[] salt, byte[] hash) {
+            this.iterations = iterations;
+            this.keyLength = keyLength;
+            this.salt = salt;
+            this.hash = hash;
+        }
+
+        /**
+         * Разбирает закодированный пароль.
+         *
+         * @throws IllegalArgumentException если пароль не соответствует формату.
+         */
+        static EncodedPassword parse(String encodedPassword) {
+            String[] parts = encodedPassword.substring(PREFIX.length()).split("\\$");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected number of fields");
+            }
+            int iterations = 0;
+            int keyLength = 0;
+            for (String parameter : parts[0].split(",")) {
+                if (parameter.startsWith("i=")) {
+                    iterations = Integer.parseInt(parameter.substring(2));
+                } else if (parameter.startsWith("l=")) {
+                    keyLength = Integer.parseInt(parameter.substring(2));
+                }
+            }
+            if (iterations <= 0 || keyLength <= 0) {
+                throw new IllegalArgumentException("Missing parameters");
+            }
+            return new EncodedPassword(iterations, keyLength,
+                    BASE64_DECODER.decode(parts[1].getBytes(StandardCharsets.US_ASCII)),
+                    BASE64_DECODER.decode(parts[2].getBytes(StandardCharsets.US_ASCII)));
+        }
     }
 }
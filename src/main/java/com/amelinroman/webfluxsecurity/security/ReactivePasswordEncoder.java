@@ -0,0 +1,39 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * @author Amelin Roman
+ * Интерфейс ReactivePasswordEncoder описывает неблокирующее кодирование и сравнение паролей.
+ * Реализации выполняют вычисление хэша вне потоков event loop.
+ */
+public interface ReactivePasswordEncoder {
+
+    /**
+     * Кодирует пароль.
+     *
+     * @param rawPassword некодированный пароль, который требуется закодировать.
+     * @return Mono<String> с закодированной строкой пароля.
+     */
+    Mono<String> encode(CharSequence rawPassword);
+
+    /**
+     * Сравнивает некодированный пароль с закодированным паролем.
+     *
+     * @param rawPassword     некодированный пароль для проверки.
+     * @param encodedPassword закодированный пароль для сравнения.
+     * @return Mono<Boolean> со значением true, если пароли совпадают, иначе false.
+     */
+    Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword);
+
+    /**
+     * Проверяет, закодирован ли пароль с устаревшими параметрами и нужно ли его перекодировать.
+     * Проверка разбирает только параметры хэша и выполняется без обращения к пулу хэширования.
+     *
+     * @param encodedPassword закодированный пароль.
+     * @return true, если пароль следует перекодировать, иначе false.
+     */
+    default boolean upgradeEncoding(String encodedPassword) {
+        return false;
+    }
+}
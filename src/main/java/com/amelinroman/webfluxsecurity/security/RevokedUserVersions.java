@@ -0,0 +1,164 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Amelin Roman
+ * Компонент RevokedUserVersions хранит в памяти минимальные допустимые версии безопасности пользователей
+ * для режима аутентификации без обращения к базе данных.
+ * Токен пользователя отзывается, если его версия (ver) меньше допустимой. Для отключенных пользователей
+ * допустимая версия равна Integer.MAX_VALUE, поэтому все их токены отклоняются.
+ * Набор периодически перечитывается из базы данных, причем загружаются только пользователи, измененные
+ * за время жизни токена и интервал обновления: более ранние изменения не затрагивают действующие токены.
+ * Отключение пользователя на этом экземпляре приложения учитывается сразу, на остальных — по сообщению
+ * UserInvalidationBus, а если сообщение потеряно — не позднее следующего обновления.
+ * Отзыв на этом экземпляре, выполненный во время обновления, мог не попасть в загруженный снимок базы данных,
+ * поэтому после замены набора такие отзывы применяются к нему повторно.
+ */
+@Slf4j
+@Component
+public class RevokedUserVersions {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final long expirationInSecond;
+    private final long refreshInterval;
+
+    private volatile Map<Long, Integer> minimumVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Отзывы на этом экземпляре: идентификатор пользователя и номер обновления, во время которого выполнен отзыв.
+     */
+    private final Map<Long, Long> localRevocations = new ConcurrentHashMap<>();
+    private final AtomicLong reloadSequence = new AtomicLong();
+
+    /**
+     * Конструктор класса RevokedUserVersions.
+     *
+     * @param userRepository     репозиторий пользователей.
+     * @param enabled            признак включенного режима аутентификации без обращения к базе данных.
+     * @param expirationInSecond время жизни токена в секундах.
+     * @param refreshInterval    интервал обновления набора в секундах.
+     */
+    public RevokedUserVersions(UserRepository userRepository,
+                               @Value("${jwt.stateless.enabled}") boolean enabled,
+                               @Value("${jwt.expiration}") long expirationInSecond,
+                               @Value("${jwt.stateless.refresh-interval}") long refreshInterval) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.expirationInSecond = expirationInSecond;
+        this.refreshInterval = refreshInterval;
+    }
+
+    /**
+     * Возвращает признак включенного режима аутентификации без обращения к базе данных.
+     *
+     * @return true, если пользователь проверяется по Claims токена и набору отозванных версий.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Проверяет, отозван ли токен пользователя с указанной версией безопасности.
+     *
+     * @param userId          идентификатор пользователя.
+     * @param securityVersion версия безопасности из токена.
+     * @return true, если токен отозван.
+     */
+    public boolean isRevoked(Long userId, int securityVersion) {
+        Integer minimumVersion = minimumVersions.get(userId);
+        return minimumVersion != null && securityVersion < minimumVersion;
+    }
+
+    /**
+     * Отзывает все токены пользователя на этом экземпляре приложения, не дожидаясь обновления.
+     *
+     * @param userId идентификатор пользователя.
+     */
+    public void revokeAll(Long userId) {
+        if (enabled) {
+            localRevocations.put(userId, reloadSequence.get());
+            minimumVersions.put(userId, Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Обновляет допустимую версию пользователя по сообщению об его изменении на другом экземпляре приложения.
+     *
+     * @param userId          идентификатор пользователя.
+     * @param userEnabled     признак активности пользователя после изменения.
+     * @param securityVersion версия безопасности пользователя после изменения.
+     */
+    public void update(Long userId, boolean userEnabled, int securityVersion) {
+        if (!enabled) {
+            return;
+        }
+        localRevocations.remove(userId);
+        if (userEnabled && securityVersion == 0) {
+            minimumVersions.remove(userId);
+        } else {
+            minimumVersions.put(userId, userEnabled ? securityVersion : Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Периодически перечитывает набор отозванных версий из базы данных.
+     */
+    @Scheduled(fixedDelayString = "${jwt.stateless.refresh-interval}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        reload().subscribe(
+                null,
+                e -> log.error("IN refresh - failed to reload revoked user versions", e));
+    }
+
+    /**
+     * Загружает пользователей, измененных за время жизни токена и интервал обновления,
+     * и заменяет набор отозванных версий. Отзывы на этом экземпляре, выполненные после начала загрузки,
+     * объединяются с новым набором; более ранние отзывы уже сохранены в базе данных и входят в снимок.
+     *
+     * @return Mono<Void>, завершающийся после замены набора.
+     */
+    Mono<Void> reload() {
+        return Mono.defer(() -> {
+            long sequence = reloadSequence.incrementAndGet();
+            LocalDateTime since = LocalDateTime.now().minusSeconds(expirationInSecond + refreshInterval);
+            return userRepository.findAllByUpdatedAtAfter(since)
+                    .filter(user -> !user.isEnabled() || user.getSecurityVersion() > 0)
+                    .collectMap(UserEntity::getId, RevokedUserVersions::minimumVersion, HashMap::new)
+                    .doOnNext(versions -> {
+                        Map<Long, Integer> reloaded = new ConcurrentHashMap<>(versions);
+                        minimumVersions = reloaded;
+                        localRevocations.forEach((userId, revokedDuring) -> {
+                            if (revokedDuring >= sequence) {
+                                reloaded.merge(userId, Integer.MAX_VALUE, Math::max);
+                            } else {
+                                localRevocations.remove(userId, revokedDuring);
+                            }
+                        });
+                        log.debug("IN reload - {} revoked user versions loaded", versions.size());
+                    })
+                    .then();
+        });
+    }
+
+    private static int minimumVersion(UserEntity user) {
+        return user.isEnabled() ? user.getSecurityVersion() : Integer.MAX_VALUE;
+    }
+}
@@ -0,0 +1,92 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import org.springframework.security.authorization.AuthenticatedReactiveAuthorizationManager;
+import org.springframework.security.authorization.AuthorityReactiveAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * @author Amelin Roman
+ * Класс RouteAccess описывает правило доступа к маршруту: открытый маршрут, маршрут для аутентифицированных
+ * пользователей, маршрут для пользователей с определенной ролью или запрещенный маршрут.
+ * Каждое правило содержит менеджер авторизации, которым проверяется запрос к маршруту.
+ */
+public final class RouteAccess {
+
+    private static final Mono<AuthorizationDecision> GRANTED = Mono.just(new AuthorizationDecision(true));
+
+    /**
+     * Открытый маршрут: доступен без аутентификации, Bearer-токен не проверяется.
+     */
+    public static final RouteAccess PUBLIC = new RouteAccess("public", (authentication, context) -> GRANTED);
+
+    /**
+     * Маршрут, доступный любому аутентифицированному пользователю.
+     */
+    public static final RouteAccess AUTHENTICATED =
+            new RouteAccess("authenticated", AuthenticatedReactiveAuthorizationManager.authenticated());
+
+    /**
+     * Запрещенный маршрут: доступ отклоняется для любого пользователя.
+     */
+    public static final RouteAccess DENIED =
+            new RouteAccess("denied", (authentication, context) -> Mono.just(new AuthorizationDecision(false)));
+
+    /**
+     * Правила доступа, заранее созданные для каждой роли пользователя.
+     */
+    private static final Map<UserRole, RouteAccess> ROLES = new EnumMap<>(UserRole.class);
+
+    static {
+        for (UserRole role : UserRole.values()) {
+            ROLES.put(role, new RouteAccess(role.name(), AuthorityReactiveAuthorizationManager.hasAuthority(role.name())));
+        }
+    }
+
+    private final String name;
+    private final ReactiveAuthorizationManager<AuthorizationContext> authorizationManager;
+
+    private RouteAccess(String name, ReactiveAuthorizationManager<AuthorizationContext> authorizationManager) {
+        this.name = name;
+        this.authorizationManager = authorizationManager;
+    }
+
+    /**
+     * Возвращает правило доступа для пользователей с указанной ролью.
+     *
+     * @param role роль пользователя.
+     * @return правило доступа.
+     */
+    public static RouteAccess role(UserRole role) {
+        return ROLES.get(role);
+    }
+
+    /**
+     * Проверяет, является ли маршрут открытым.
+     *
+     * @return true, если аутентификация для маршрута не выполняется.
+     */
+    public boolean isPublic() {
+        return this == PUBLIC;
+    }
+
+    /**
+     * Возвращает менеджер авторизации, которым проверяется запрос к маршруту.
+     *
+     * @return менеджер авторизации.
+     */
+    public ReactiveAuthorizationManager<AuthorizationContext> getAuthorizationManager() {
+        return authorizationManager;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
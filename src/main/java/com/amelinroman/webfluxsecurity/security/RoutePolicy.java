@@ -0,0 +1,231 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Amelin Roman
+ * Компонент RoutePolicy определяет правило доступа к маршруту по пути запроса.
+ * Правила задаются свойствами security.routes.public, security.routes.authenticated и security.routes.roles.&lt;роль&gt;
+ * и при запуске компилируются в префиксное дерево по сегментам пути, поэтому правило находится за один проход по пути.
+ * Поддерживаются точные пути, сегмент * (любой один сегмент) и завершающий сегмент ** (путь и все вложенные пути).
+ * Если путь подходит под несколько шаблонов, применяется наиболее точный. Маршруты, не подходящие ни под один шаблон,
+ * доступны только аутентифицированным пользователям.
+ * Путь сопоставляется по декодированным сегментам без matrix-параметров, так же как при выборе обработчика запроса.
+ * Пути, содержащие закодированные символы или matrix-параметры, запрещаются: их нормализованная форма отличается
+ * от исходной, и правило для них могло бы разойтись с маршрутом, выбранным обработчиком.
+ * Правило запоминается в атрибутах запроса, так как используется и фильтром аутентификации, и авторизацией.
+ */
+@Component
+public class RoutePolicy implements ReactiveAuthorizationManager<AuthorizationContext> {
+
+    static final String ROUTE_ACCESS_ATTRIBUTE = RoutePolicy.class.getName() + ".ACCESS";
+    private static final String ROLE_ROUTES_PROPERTY = "security.routes.roles.";
+
+    private final Node root = new Node();
+
+    /**
+     * Конструктор класса RoutePolicy.
+     *
+     * @param publicRoutes        шаблоны открытых маршрутов.
+     * @param authenticatedRoutes шаблоны маршрутов для аутентифицированных пользователей.
+     * @param environment         окружение, из которого читаются шаблоны маршрутов для ролей.
+     */
+    @Autowired
+    public RoutePolicy(@Value("${security.routes.public}") String[] publicRoutes,
+                       @Value("${security.routes.authenticated:}") String[] authenticatedRoutes,
+                       Environment environment) {
+        this(publicRoutes, authenticatedRoutes, roleRoutes(environment));
+    }
+
+    RoutePolicy(String[] publicRoutes, String[] authenticatedRoutes, Map<UserRole, String[]> roleRoutes) {
+        add(publicRoutes, RouteAccess.PUBLIC);
+        add(authenticatedRoutes, RouteAccess.AUTHENTICATED);
+        roleRoutes.forEach((role, patterns) -> add(patterns, RouteAccess.role(role)));
+    }
+
+    /**
+     * Определяет правило доступа к маршруту запроса. Запросы OPTIONS всегда открыты.
+     *
+     * @param exchange обмен данными запроса.
+     * @return правило доступа.
+     */
+    public RouteAccess resolve(ServerWebExchange exchange) {
+        RouteAccess access = exchange.getAttribute(ROUTE_ACCESS_ATTRIBUTE);
+        if (access == null) {
+            access = HttpMethod.OPTIONS.equals(exchange.getRequest().getMethod())
+                    ? RouteAccess.PUBLIC
+                    : resolve(exchange.getRequest().getPath().pathWithinApplication());
+            exchange.getAttributes().put(ROUTE_ACCESS_ATTRIBUTE, access);
+        }
+        return access;
+    }
+
+    /**
+     * Определяет правило доступа к маршруту по пути.
+     *
+     * @param path путь запроса.
+     * @return правило доступа.
+     */
+    public RouteAccess resolve(String path) {
+        return resolve(PathContainer.parsePath(path));
+    }
+
+    /**
+     * Определяет правило доступа к маршруту по разобранному пути.
+     * Для пути, нормализованная форма которого отличается от исходной, возвращается запрещающее правило.
+     *
+     * @param path разобранный путь запроса.
+     * @return правило доступа.
+     */
+    public RouteAccess resolve(PathContainer path) {
+        List<PathContainer.Element> elements = path.elements();
+        if (!isNormalized(elements)) {
+            return RouteAccess.DENIED;
+        }
+        RouteAccess access = match(root, elements, 0);
+        return access != null ? access : RouteAccess.AUTHENTICATED;
+    }
+
+    /**
+     * Возвращает условие, при котором для запроса выполняется аутентификация по Bearer-токену:
+     * для открытых маршрутов токен не проверяется.
+     *
+     * @return условие выполнения аутентификации.
+     */
+    public ServerWebExchangeMatcher requiresAuthenticationMatcher() {
+        return exchange -> resolve(exchange).isPublic()
+                ? ServerWebExchangeMatcher.MatchResult.notMatch()
+                : ServerWebExchangeMatcher.MatchResult.match();
+    }
+
+    /**
+     * Проверяет доступ к маршруту по правилу, определенному для запроса.
+     *
+     * @param authentication аутентификация пользователя.
+     * @param context        контекст авторизации запроса.
+     * @return Mono<AuthorizationDecision> решение о доступе.
+     */
+    @Override
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, AuthorizationContext context) {
+        return resolve(context.getExchange()).getAuthorizationManager().check(authentication, context);
+    }
+
+    private void add(String[] patterns, RouteAccess access) {
+        for (String pattern : patterns) {
+            String trimmed = pattern.trim();
+            if (!trimmed.isEmpty()) {
+                add(trimmed, access);
+            }
+        }
+    }
+
+    private void add(String pattern, RouteAccess access) {
+        if (!pattern.startsWith("/")) {
+            throw new IllegalArgumentException("Route pattern must start with '/': " + pattern);
+        }
+        Node node = root;
+        String[] segments = pattern.substring(1).split("/");
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals("**")) {
+                if (i != segments.length - 1) {
+                    throw new IllegalArgumentException("'**' is only supported at the end of a route pattern: " + pattern);
+                }
+                node.descendants = assign(node.descendants, access, pattern);
+                return;
+            }
+            if (segment.equals("*")) {
+                node = node.anySegment == null ? (node.anySegment = new Node()) : node.anySegment;
+            } else if (segment.indexOf('*') >= 0 || segment.indexOf('{') >= 0) {
+                throw new IllegalArgumentException("Unsupported route pattern segment '" + segment + "': " + pattern);
+            } else {
+                node = node.children.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        node.exact = assign(node.exact, access, pattern);
+    }
+
+    private static RouteAccess assign(RouteAccess current, RouteAccess access, String pattern) {
+        if (current != null && current != access) {
+            throw new IllegalStateException("Route pattern " + pattern + " is configured as both " + current + " and " + access);
+        }
+        return access;
+    }
+
+    private static boolean isNormalized(List<PathContainer.Element> elements) {
+        for (PathContainer.Element element : elements) {
+            if (element instanceof PathContainer.PathSegment segment && !segment.value().equals(segment.valueToMatch())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Находит наиболее точное правило для пути, начиная с указанного элемента.
+     * Точный сегмент проверяется раньше сегмента *, а завершающий ** применяется, если более точного правила нет.
+     *
+     * @param node     узел дерева, соответствующий уже пройденной части пути.
+     * @param elements элементы пути запроса: разделители и сегменты.
+     * @param from     индекс первого непройденного элемента пути.
+     * @return правило доступа или null, если путь не подходит ни под один шаблон.
+     */
+    private static RouteAccess match(Node node, List<PathContainer.Element> elements, int from) {
+        int size = elements.size();
+        while (from < size && !(elements.get(from) instanceof PathContainer.PathSegment segment
+                && !segment.valueToMatch().isEmpty())) {
+            from++;
+        }
+        if (from == size) {
+            return node.exact != null ? node.exact : node.descendants;
+        }
+        RouteAccess access = null;
+        Node child = node.children.get(((PathContainer.PathSegment) elements.get(from)).valueToMatch());
+        if (child != null) {
+            access = match(child, elements, from + 1);
+        }
+        if (access == null && node.anySegment != null) {
+            access = match(node.anySegment, elements, from + 1);
+        }
+        return access != null ? access : node.descendants;
+    }
+
+    private static Map<UserRole, String[]> roleRoutes(Environment environment) {
+        Map<UserRole, String[]> roleRoutes = new EnumMap<>(UserRole.class);
+        for (UserRole role : UserRole.values()) {
+            String[] patterns = environment.getProperty(ROLE_ROUTES_PROPERTY + role.name(), String[].class);
+            if (patterns != null) {
+                roleRoutes.put(role, patterns);
+            }
+        }
+        return roleRoutes;
+    }
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Node anySegment;
+        private RouteAccess exact;
+        private RouteAccess descendants;
+    }
+}
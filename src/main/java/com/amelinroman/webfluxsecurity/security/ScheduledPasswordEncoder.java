@@ -0,0 +1,130 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Amelin Roman
+ * Компонент ScheduledPasswordEncoder реализует ReactivePasswordEncoder и выполняет кодирование
+ * и сравнение паролей на выделенном пуле потоков с ограниченной очередью.
+ * Если очередь заполнена, задача сразу отклоняется с ошибкой ServiceOverloadedException,
+ * вместо того чтобы блокировать потоки event loop.
+ */
+@Slf4j
+@Component
+public class ScheduledPasswordEncoder implements ReactivePasswordEncoder {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * Конструктор класса ScheduledPasswordEncoder.
+     *
+     * @param passwordEncoder кодировщик паролей, выполняющий вычисление хэша.
+     * @param threads         количество потоков пула.
+     * @param queueCapacity   максимальное количество задач, ожидающих выполнения.
+     * @param meterRegistry   реестр метрик для публикации размера очереди и времени ожидания.
+     */
+    public ScheduledPasswordEncoder(PasswordEncoder passwordEncoder,
+                                    @Value("${jwt.password.encoder.pool.threads}") int threads,
+                                    @Value("${jwt.password.encoder.pool.queue-capacity}") int queueCapacity,
+                                    MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+
+        Gauge.builder("password.hashing.queue.size", executor, e -> e.getQueue().size())
+                .description("Количество задач хэширования, ожидающих выполнения")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Количество выполняемых задач хэширования")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("Время ожидания задачи хэширования в очереди")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Количество задач хэширования, отклоненных из-за переполнения очереди")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<String> encode(CharSequence rawPassword) {
+        return schedule(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return schedule(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Ставит задачу в очередь пула хэширования и измеряет время ее ожидания.
+     *
+     * @param task задача вычисления хэша.
+     * @return Mono с результатом задачи или ошибкой ServiceOverloadedException, если очередь заполнена.
+     */
+    private <T> Mono<T> schedule(Callable<T> task) {
+        return Mono.defer(() -> {
+                    long queuedAt = System.nanoTime();
+                    return Mono.fromCallable(() -> {
+                        waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                        return task.call();
+                    }).subscribeOn(scheduler);
+                })
+                .onErrorMap(RejectedExecutionException.class, e -> {
+                    rejectedCounter.increment();
+                    log.warn("IN schedule - password hashing queue is full");
+                    return new ServiceOverloadedException("Password hashing queue is full");
+                });
+    }
+
+    /**
+     * Останавливает пул хэширования при остановке контекста приложения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.dispose();
+    }
+
+    /**
+     * Фабрика именованных потоков-демонов для пула хэширования.
+     */
+    private static class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
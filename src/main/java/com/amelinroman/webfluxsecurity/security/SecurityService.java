@@ -1,38 +1,40 @@
 package com.amelinroman.webfluxsecurity.security;
 
+import com.amelinroman.webfluxsecurity.entity.UserCredentials;
 import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
 import com.amelinroman.webfluxsecurity.exception.AuthException;
+import com.amelinroman.webfluxsecurity.exception.TooManyRequestsException;
+import com.amelinroman.webfluxsecurity.exception.UnauthorizedException;
+import com.amelinroman.webfluxsecurity.service.RefreshTokenService;
 import com.amelinroman.webfluxsecurity.service.UserService;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
-import java.util.*;
-
 
 /**
  * @author Amelin Roman
  * Компонент SecurityService отвечает за аутентификацию пользователей
- * и генерацию JWT-токенов.
+ * и генерацию JWT-токенов. Вместе с коротким JWT-токеном выдается refresh-токен,
+ * по которому сессия продлевается без повторной проверки пароля.
+ * Токены выпускает TokenMinter: они подписываются активным асимметричным ключом из SigningKeyStore,
+ * идентификатор ключа передается в заголовке kid.
+ * Если пароль пользователя закодирован с устаревшими параметрами, после успешного входа он перекодируется в фоне.
  */
 
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class SecurityService {
 
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
-
-    @Value("${jwt.secret}")
-    private String secret;
-    @Value("${jwt.expiration}")
-    private Integer expirationInSecond;
-    @Value("${jwt.issuer}")
-    private String issuer;
+    private final ReactivePasswordEncoder passwordEncoder;
+    private final AuthMetrics authMetrics;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenMinter tokenMinter;
 
     /**
      * Генерирует JWT-токен для указанного пользователя.
@@ -41,78 +43,109 @@ public class SecurityService {
      * @return объект TokenDetails, содержащий сгенерированный токен и его параметры.
      */
     private TokenDetails generateToken(UserEntity user) {
-        Map<String, Object> claims = new HashMap<>() {{
-            put("role", user.getRole());
-            put("username", user.getUsername());
-        }};
-        return generateToken(claims, user.getId().toString());
+        return generateToken(user.getId(), user.getRole(), user.getUsername(), user.getSecurityVersion());
     }
 
     /**
-     * Генерирует JWT-токен с указанными Claims и Subject.
+     * Генерирует JWT-токен для пользователя по данным, прочитанным при входе в систему.
      *
-     * @param claims объект Map, содержащий Claims для токена.
-     * @param subject значение Subject для токена.
+     * @param credentials данные пользователя, для которого генерируется токен.
      * @return объект TokenDetails, содержащий сгенерированный токен и его параметры.
      */
-    private TokenDetails generateToken(Map<String, Object> claims, String subject) {
-        Long expirationTimeInMillis = expirationInSecond * 1000L;
-        Date expirationDate = new Date(new Date().getTime() + expirationTimeInMillis);
-
-        return generateToken(expirationDate, claims, subject);
+    private TokenDetails generateToken(UserCredentials credentials) {
+        return generateToken(credentials.getId(), credentials.getRole(), credentials.getUsername(), credentials.getSecurityVersion());
     }
 
     /**
-     * Генерирует JWT-токен с указанной датой окончания действия, Claims и Subject.
+     * Генерирует JWT-токен по идентификатору, роли, имени и версии безопасности пользователя.
      *
-     * @param expirationDate дата окончания действия токена.
-     * @param claims объект Map, содержащий Claims для токена.
-     * @param subject значение Subject для токена.
+     * @param userId          идентификатор пользователя.
+     * @param role            роль пользователя.
+     * @param username        имя пользователя.
+     * @param securityVersion версия безопасности пользователя.
      * @return объект TokenDetails, содержащий сгенерированный токен и его параметры.
      */
-    private TokenDetails generateToken(Date expirationDate, Map<String, Object> claims, String subject) {
-        Date createdDate = new Date();
-        String token = Jwts.builder()
-                .setClaims(claims)
-                .setIssuer(issuer)
-                .setSubject(subject)
-                .setIssuedAt(createdDate)
-                .setId(UUID.randomUUID().toString())
-                .setExpiration(expirationDate)
-                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(secret.getBytes()))
-                .compact();
-
-        return TokenDetails.builder()
-                .token(token)
-                .issuedAt(createdDate)
-                .expiresAt(expirationDate)
-                .build();
+    private TokenDetails generateToken(Long userId, UserRole role, String username, int securityVersion) {
+        return tokenMinter.mint(userId, role, username, securityVersion);
     }
 
     /**
      * Аутентифицирует пользователя с указанным именем пользователя и паролем
      * и возвращает JWT-токен.
+     * Время поиска пользователя и проверки пароля записывается в метрики.
+     * Если для имени пользователя превышена частота попыток входа, запрос отклоняется
+     * до обращения к базе данных и хэширования пароля. Имя пользователя нормализуется до проверки частоты,
+     * поэтому варианты имени, отличающиеся регистром или пробелами по краям, расходуют попытки одной учетной записи.
      *
      * @param username имя пользователя пользователя.
      * @param password пароль пользователя.
      * @return Mono<TokenDetails> объект, содержащий сгенерированный токен и его параметры.
      * @throws AuthException если аутентификация неуспешна.
+     * @throws TooManyRequestsException если превышена частота попыток входа.
      */
     public Mono<TokenDetails> authenticate(String username, String password) {
-        return userService.getUserByUsername(username)
+        String normalizedUsername = UserService.normalizeUsername(username);
+        Mono<TokenDetails> login = Mono.defer(() -> loginThrottle.tryAcquireUsername(normalizedUsername)
+                        ? authMetrics.timed(AuthMetrics.LOGIN_USER_QUERY, userService.getUserCredentials(normalizedUsername))
+                        : Mono.error(new TooManyRequestsException("Too many login attempts")))
                 .flatMap(user -> {
                     if (!user.isEnabled()) {
                         return Mono.error(new AuthException("Account disabled", "PROSELYTE_USER_ACCOUNT_DISABLED"));
                     }
 
-                    if (!passwordEncoder.matches(password, user.getPassword())) {
-                        return Mono.error(new AuthException("Invalid password", "PROSELYTE_INVALID_PASSWORD"));
-                    }
+                    return authMetrics.timed(AuthMetrics.PASSWORD_VERIFICATION, passwordEncoder.matches(password, user.getPassword()))
+                            .flatMap(matches -> {
+                                if (!matches) {
+                                    return Mono.error(new AuthException("Invalid password", "PROSELYTE_INVALID_PASSWORD"));
+                                }
+
+                                if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+                                    upgradePassword(user, password);
+                                }
 
-                    return Mono.just(generateToken(user).toBuilder()
-                            .userId(user.getId())
-                            .build());
+                                return refreshTokenService.issue(user.getId())
+                                        .map(refresh -> withRefreshToken(generateToken(user), refresh));
+                            });
                 })
                 .switchIfEmpty(Mono.error(new AuthException("Invalid username", "PROSELYTE_INVALID_USERNAME")));
+        return authMetrics.counted(AuthMetrics.LOGIN_FLOW, login);
+    }
+
+    /**
+     * Продлевает сессию по refresh-токену: ротирует refresh-токен и выпускает новый JWT-токен.
+     * Пароль при этом не проверяется, пользователь загружается из кэша и должен быть включен.
+     *
+     * @param refreshToken refresh-токен, выданный при входе или предыдущем обновлении.
+     * @return Mono<TokenDetails> объект, содержащий новые JWT-токен и refresh-токен.
+     * @throws UnauthorizedException если refresh-токен недействителен или пользователь отключен.
+     */
+    public Mono<TokenDetails> refresh(String refreshToken) {
+        Mono<TokenDetails> refresh = authMetrics.timed(AuthMetrics.REFRESH_TOKEN_ROTATION, refreshTokenService.rotate(refreshToken))
+                .flatMap(refreshDetails -> userService.getUserById(refreshDetails.getUserId())
+                        .filter(UserEntity::isEnabled)
+                        .switchIfEmpty(Mono.error(new UnauthorizedException("User disabled", "PROSELYTE_USER_DISABLED")))
+                        .map(user -> withRefreshToken(generateToken(user), refreshDetails)));
+        return authMetrics.counted(AuthMetrics.REFRESH_FLOW, refresh);
+    }
+
+    /**
+     * Перекодирует устаревший хэш пароля в фоне, не задерживая ответ на вход.
+     * Если перекодировать пароль не удалось, например из-за переполнения пула хэширования,
+     * попытка повторится при следующем входе.
+     *
+     * @param user     пользователь, пароль которого был успешно проверен.
+     * @param password некодированный пароль пользователя.
+     */
+    private void upgradePassword(UserCredentials user, String password) {
+        userService.upgradePassword(user, password)
+                .subscribe(null, e -> log.warn("IN upgradePassword - failed to re-encode password of user: {}", user.getId(), e));
+    }
+
+    private static TokenDetails withRefreshToken(TokenDetails tokenDetails, TokenDetails refreshDetails) {
+        return tokenDetails.toBuilder()
+                .userId(refreshDetails.getUserId())
+                .refreshToken(refreshDetails.getRefreshToken())
+                .refreshExpiresAt(refreshDetails.getRefreshExpiresAt())
+                .build();
     }
 }
@@ -0,0 +1,137 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @author Amelin Roman
+ * Перечисление SigningAlgorithm содержит асимметричные алгоритмы подписи JWT-токенов.
+ * Имена констант совпадают со значениями заголовка alg (RFC 7518, RFC 8037), для каждого алгоритма
+ * указаны алгоритм подписи и алгоритм ключа JDK. Подпись ES256 используется в формате R||S,
+ * которого требует JWS, поэтому перекодирование из DER не требуется.
+ */
+public enum SigningAlgorithm {
+    RS256("SHA256withRSA", "RSA") {
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(getKeyAlgorithm());
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        }
+
+        @Override
+        void writeJwk(PublicKey publicKey, Map<String, Object> jwk) {
+            RSAPublicKey rsaKey = (RSAPublicKey) publicKey;
+            jwk.put("kty", "RSA");
+            jwk.put("n", encode(unsigned(rsaKey.getModulus())));
+            jwk.put("e", encode(unsigned(rsaKey.getPublicExponent())));
+        }
+    },
+    ES256("SHA256withECDSAinP1363Format", "EC") {
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(getKeyAlgorithm());
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        }
+
+        @Override
+        void writeJwk(PublicKey publicKey, Map<String, Object> jwk) {
+            ECPublicKey ecKey = (ECPublicKey) publicKey;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", encode(fixedLength(ecKey.getW().getAffineX(), 32)));
+            jwk.put("y", encode(fixedLength(ecKey.getW().getAffineY(), 32)));
+        }
+    },
+    EdDSA("Ed25519", "Ed25519") {
+        @Override
+        KeyPair generateKeyPair() throws GeneralSecurityException {
+            return KeyPairGenerator.getInstance(getKeyAlgorithm()).generateKeyPair();
+        }
+
+        @Override
+        void writeJwk(PublicKey publicKey, Map<String, Object> jwk) {
+            byte[] encoded = publicKey.getEncoded();
+            jwk.put("kty", "OKP");
+            jwk.put("crv", "Ed25519");
+            jwk.put("x", encode(Arrays.copyOfRange(encoded, encoded.length - 32, encoded.length)));
+        }
+    };
+
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final String signatureAlgorithm;
+    private final String keyAlgorithm;
+
+    SigningAlgorithm(String signatureAlgorithm, String keyAlgorithm) {
+        this.signatureAlgorithm = signatureAlgorithm;
+        this.keyAlgorithm = keyAlgorithm;
+    }
+
+    public String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    public String getKeyAlgorithm() {
+        return keyAlgorithm;
+    }
+
+    /**
+     * Создает новую пару ключей для алгоритма.
+     *
+     * @return пара ключей.
+     * @throws GeneralSecurityException если алгоритм недоступен.
+     */
+    abstract KeyPair generateKeyPair() throws GeneralSecurityException;
+
+    /**
+     * Записывает параметры открытого ключа в JWK (RFC 7517).
+     *
+     * @param publicKey открытый ключ.
+     * @param jwk       JWK, в который записываются параметры.
+     */
+    abstract void writeJwk(PublicKey publicKey, Map<String, Object> jwk);
+
+    /**
+     * Формирует JWK для открытого ключа с указанным идентификатором.
+     *
+     * @param kid       идентификатор ключа.
+     * @param publicKey открытый ключ.
+     * @return JWK в виде Map.
+     */
+    Map<String, Object> toJwk(String kid, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        writeJwk(publicKey, jwk);
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", name());
+        return jwk;
+    }
+
+    private static String encode(byte[] bytes) {
+        return BASE64_URL_ENCODER.encodeToString(bytes);
+    }
+
+    private static byte[] unsigned(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        return bytes[0] == 0 && bytes.length > 1 ? Arrays.copyOfRange(bytes, 1, bytes.length) : bytes;
+    }
+
+    private static byte[] fixedLength(BigInteger value, int length) {
+        byte[] bytes = unsigned(value);
+        byte[] result = new byte[length];
+        System.arraycopy(bytes, 0, result, length - bytes.length, bytes.length);
+        return result;
+    }
+}
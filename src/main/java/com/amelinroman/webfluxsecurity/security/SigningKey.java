@@ -0,0 +1,65 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.LocalDateTime;
+
+/**
+ * @author Amelin Roman
+ * Класс SigningKey содержит ключ подписи JWT-токенов: идентификатор (kid), алгоритм, пару ключей,
+ * момент, с которого ключ используется для подписи, и момент, после которого токены с этим ключом
+ * больше не принимаются.
+ */
+@Getter
+@AllArgsConstructor
+public class SigningKey {
+
+    private final String kid;
+    private final SigningAlgorithm algorithm;
+    private final PublicKey publicKey;
+    private final PrivateKey privateKey;
+    private final LocalDateTime activatesAt;
+    private final LocalDateTime expiresAt;
+
+    /**
+     * Подписывает данные закрытым ключом.
+     *
+     * @param data данные для подписи.
+     * @return подпись в формате JWS.
+     */
+    public byte[] sign(byte[] data) {
+        try {
+            Signature signature = Signature.getInstance(algorithm.getSignatureAlgorithm());
+            signature.initSign(privateKey);
+            signature.update(data);
+            return signature.sign();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Проверяет подпись части массива байтов открытым ключом.
+     *
+     * @param data      массив, содержащий подписанные данные.
+     * @param offset    начало подписанных данных.
+     * @param length    длина подписанных данных.
+     * @param signature подпись в формате JWS.
+     * @return true, если подпись верна.
+     */
+    public boolean verify(byte[] data, int offset, int length, byte[] signature) {
+        try {
+            Signature verifier = Signature.getInstance(algorithm.getSignatureAlgorithm());
+            verifier.initVerify(publicKey);
+            verifier.update(data, offset, length);
+            return verifier.verify(signature);
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.SigningKeyEntity;
+import com.amelinroman.webfluxsecurity.exception.ServiceOverloadedException;
+import com.amelinroman.webfluxsecurity.repository.SigningKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * @author Amelin Roman
+ * Компонент SigningKeyStore хранит ключи подписи JWT-токенов и выполняет их плановую ротацию.
+ * Ключи хранятся в таблице signing_keys, поэтому все экземпляры приложения подписывают и проверяют токены
+ * одним набором ключей. Набор периодически перечитывается в память, где ключи проверки индексированы по kid.
+ * Новый ключ создается заранее, за publish-ahead секунд до начала использования, чтобы сервисы,
+ * кэширующие JWKS, успели его получить. Ключ публикуется, пока не истекут подписанные им токены.
+ * Если два экземпляра одновременно создают следующий ключ, второй отклоняется уникальным ограничением
+ * на момент активации.
+ */
+@Slf4j
+@Component
+public class SigningKeyStore {
+
+    private static final String KEY_CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final SigningKeyRepository signingKeyRepository;
+    private final SigningAlgorithm algorithm;
+    private final long rotationInterval;
+    private final long publishAhead;
+    private final long tokenExpiration;
+    private final SecretKeySpec keyEncryptionKey;
+
+    private volatile Snapshot snapshot = new Snapshot(List.of());
+
+    /**
+     * Конструктор класса SigningKeyStore.
+     *
+     * @param signingKeyRepository репозиторий ключей подписи.
+     * @param algorithm            алгоритм подписи новых ключей: RS256, ES256 или EdDSA.
+     * @param rotationInterval     время в секундах, в течение которого ключ используется для подписи.
+     * @param publishAhead         время в секундах между публикацией нового ключа и началом его использования.
+     * @param tokenExpiration      время жизни JWT-токена в секундах.
+     * @param keyEncryptionSecret  секрет, из которого выводится ключ шифрования закрытых ключей.
+     */
+    public SigningKeyStore(SigningKeyRepository signingKeyRepository,
+                           @Value("${jwt.signing.algorithm}") String algorithm,
+                           @Value("${jwt.signing.rotation-interval}") long rotationInterval,
+                           @Value("${jwt.signing.publish-ahead}") long publishAhead,
+                           @Value("${jwt.expiration}") long tokenExpiration,
+                           @Value("${jwt.signing.key-encryption-secret}") String keyEncryptionSecret) {
+        this.signingKeyRepository = signingKeyRepository;
+        this.algorithm = SigningAlgorithm.valueOf(algorithm);
+        this.rotationInterval = rotationInterval;
+        this.publishAhead = publishAhead;
+        this.tokenExpiration = tokenExpiration;
+        this.keyEncryptionKey = new SecretKeySpec(sha256(keyEncryptionSecret), "AES");
+    }
+
+    /**
+     * Возвращает ключ, которым подписываются новые токены: последний из уже активированных ключей.
+     *
+     * @return ключ подписи.
+     * @throws ServiceOverloadedException если ключи еще не загружены.
+     */
+    public SigningKey activeKey() {
+        LocalDateTime now = LocalDateTime.now();
+        for (SigningKey key : snapshot.signingOrder) {
+            if (!key.getActivatesAt().isAfter(now)) {
+                return key;
+            }
+        }
+        throw new ServiceOverloadedException("Signing key is not loaded yet");
+    }
+
+    /**
+     * Возвращает ключ проверки по идентификатору.
+     *
+     * @param kid идентификатор ключа из заголовка токена.
+     * @return ключ или null, если ключ неизвестен или истек.
+     */
+    public SigningKey findByKid(String kid) {
+        return kid == null ? null : snapshot.byKid.get(kid);
+    }
+
+    /**
+     * Возвращает опубликованные открытые ключи в формате JWKS (RFC 7517).
+     *
+     * @return JSON-документ со списком ключей.
+     */
+    public String getJwks() {
+        return snapshot.jwks;
+    }
+
+    /**
+     * Периодически перечитывает ключи из базы данных, при необходимости создает следующий ключ
+     * и удаляет истекшие ключи.
+     */
+    @Scheduled(fixedDelayString = "${jwt.signing.refresh-interval}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        reload(LocalDateTime.now()).subscribe(
+                null,
+                e -> log.error("IN refresh - failed to reload signing keys", e));
+    }
+
+    /**
+     * Загружает действующие ключи, создает следующий ключ, если подошло время ротации, и заменяет набор ключей в памяти.
+     *
+     * @param now текущее время.
+     * @return Mono<Void>, завершающийся после замены набора ключей.
+     */
+    Mono<Void> reload(LocalDateTime now) {
+        return loadKeys(now)
+                .flatMap(keys -> {
+                    LocalDateTime nextActivation = nextActivation(keys, now);
+                    if (nextActivation == null) {
+                        return Mono.just(keys);
+                    }
+                    return createKey(nextActivation)
+                            .onErrorResume(DataIntegrityViolationException.class, e -> {
+                                log.info("IN reload - signing key activating at {} was created by another instance", nextActivation);
+                                return Mono.empty();
+                            })
+                            .then(loadKeys(now));
+                })
+                .doOnNext(keys -> snapshot = new Snapshot(keys))
+                .then(signingKeyRepository.deleteExpired(now))
+                .then();
+    }
+
+    /**
+     * Определяет момент активации следующего ключа.
+     *
+     * @param keys действующие ключи.
+     * @param now  текущее время.
+     * @return момент активации следующего ключа или null, если создавать ключ рано.
+     */
+    private LocalDateTime nextActivation(List<SigningKey> keys, LocalDateTime now) {
+        if (keys.isEmpty()) {
+            return now;
+        }
+        LocalDateTime latest = keys.get(0).getActivatesAt();
+        LocalDateTime next = latest.plusSeconds(rotationInterval);
+        if (now.isBefore(next.minusSeconds(publishAhead))) {
+            return null;
+        }
+        return next.isBefore(now) ? now : next;
+    }
+
+    private Mono<List<SigningKey>> loadKeys(LocalDateTime now) {
+        return signingKeyRepository.findAllByExpiresAtAfter(now)
+                .map(this::toSigningKey)
+                .sort(Comparator.comparing(SigningKey::getActivatesAt).reversed())
+                .collectList();
+    }
+
+    private Mono<SigningKeyEntity> createKey(LocalDateTime activatesAt) {
+        return Mono.fromCallable(() -> {
+                    KeyPair keyPair = algorithm.generateKeyPair();
+                    return SigningKeyEntity.builder()
+                            .kid(UUID.randomUUID().toString())
+                            .algorithm(algorithm.name())
+                            .publicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()))
+                            .privateKey(encrypt(keyPair.getPrivate().getEncoded()))
+                            .activatesAt(activatesAt)
+                            .expiresAt(activatesAt.plusSeconds(rotationInterval + tokenExpiration))
+                            .createdAt(LocalDateTime.now())
+                            .build();
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(signingKeyRepository::save)
+                .doOnSuccess(key -> log.info("IN createKey - signing key {} ({}) activating at {} created",
+                        key.getKid(), key.getAlgorithm(), key.getActivatesAt()));
+    }
+
+    private SigningKey toSigningKey(SigningKeyEntity entity) {
+        try {
+            SigningAlgorithm keyAlgorithm = SigningAlgorithm.valueOf(entity.getAlgorithm());
+            KeyFactory keyFactory = KeyFactory.getInstance(keyAlgorithm.getKeyAlgorithm());
+            return new SigningKey(entity.getKid(), keyAlgorithm,
+                    keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(entity.getPublicKey()))),
+                    keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decrypt(entity.getPrivateKey()))),
+                    entity.getActivatesAt(), entity.getExpiresAt());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to load signing key " + entity.getKid(), e);
+        }
+    }
+
+    private String encrypt(byte[] privateKey) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        RANDOM.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(KEY_CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(TAG_LENGTH, iv));
+        byte[] encrypted = cipher.doFinal(privateKey);
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(iv.length + encrypted.length)
+                .put(iv)
+                .put(encrypted)
+                .array());
+    }
+
+    private byte[] decrypt(String privateKey) throws GeneralSecurityException {
+        byte[] bytes = Base64.getDecoder().decode(privateKey);
+        Cipher cipher = Cipher.getInstance(KEY_CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, keyEncryptionKey, new GCMParameterSpec(TAG_LENGTH, bytes, 0, IV_LENGTH));
+        return cipher.doFinal(bytes, IV_LENGTH, bytes.length - IV_LENGTH);
+    }
+
+    private static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Неизменяемый набор ключей: ключи в порядке убывания момента активации,
+     * индекс ключей проверки по kid и заранее сформированный JWKS.
+     */
+    private static class Snapshot {
+        private final List<SigningKey> signingOrder;
+        private final Map<String, SigningKey> byKid;
+        private final String jwks;
+
+        Snapshot(List<SigningKey> keys) {
+            this.signingOrder = List.copyOf(keys);
+            this.byKid = keys.stream().collect(Collectors.toUnmodifiableMap(SigningKey::getKid, Function.identity()));
+            try {
+                this.jwks = OBJECT_MAPPER.writeValueAsString(Map.of("keys", keys.stream()
+                        .map(key -> key.getAlgorithm().toJwk(key.getKid(), key.getPublicKey()))
+                        .toList()));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
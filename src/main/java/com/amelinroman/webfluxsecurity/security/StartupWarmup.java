@@ -0,0 +1,167 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.dto.AuthResponseDto;
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import com.amelinroman.webfluxsecurity.mapper.UserMapper;
+import com.amelinroman.webfluxsecurity.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.r2dbc.pool.ConnectionPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Amelin Roman
+ * Компонент StartupWarmup прогревает приложение при запуске: подписывает и проверяет JWT-токены,
+ * хэширует и проверяет пароль, сериализует AuthResponseDto и UserDto и выполняет запрос входа к базе данных,
+ * чтобы JIT-компилятор скомпилировал эти участки до прихода первых запросов. Перед этим пул соединений
+ * открывает initial-size соединений.
+ * Прогрев выполняется как ApplicationRunner, а Spring Boot переводит readiness в ACCEPTING_TRAFFIC
+ * только после завершения всех ApplicationRunner, поэтому /actuator/health/readiness сообщает о готовности
+ * после прогрева. Ошибка прогрева записывается в журнал и не останавливает запуск приложения.
+ */
+@Slf4j
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup implements ApplicationRunner {
+
+    private static final String USERNAME = "warmup";
+    private static final String PASSWORD = "warmup-password";
+
+    private final ConnectionPool connectionPool;
+    private final TokenMinter tokenMinter;
+    private final SigningKeyStore signingKeyStore;
+    private final ReactivePasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final JwtVerifier jwtVerifier;
+    private final int iterations;
+    private final int passwordIterations;
+    private final Duration timeout;
+
+    /**
+     * Конструктор класса StartupWarmup.
+     *
+     * @param connectionPool     пул соединений с базой данных.
+     * @param tokenMinter        выпуск JWT-токенов.
+     * @param signingKeyStore    хранилище ключей подписи.
+     * @param passwordEncoder    кодировщик паролей.
+     * @param userRepository     репозиторий пользователей.
+     * @param userMapper         преобразователь пользователей в UserDto.
+     * @param objectMapper       ObjectMapper, которым сериализуются ответы API.
+     * @param secret             секретный ключ для проверки JWT-токенов HS256.
+     * @param acceptHs256        признак того, что токены HS256 все еще принимаются.
+     * @param iterations         количество выпусков и проверок токена и сериализаций ответов.
+     * @param passwordIterations количество хэширований и проверок пароля.
+     * @param timeout            максимальное время прогрева в секундах.
+     */
+    public StartupWarmup(ConnectionPool connectionPool,
+                         TokenMinter tokenMinter,
+                         SigningKeyStore signingKeyStore,
+                         ReactivePasswordEncoder passwordEncoder,
+                         UserRepository userRepository,
+                         UserMapper userMapper,
+                         ObjectMapper objectMapper,
+                         @Value("${jwt.secret}") String secret,
+                         @Value("${jwt.signing.accept-hs256}") boolean acceptHs256,
+                         @Value("${warmup.iterations}") int iterations,
+                         @Value("${warmup.password-iterations}") int passwordIterations,
+                         @Value("${warmup.timeout}") long timeout) {
+        this.connectionPool = connectionPool;
+        this.tokenMinter = tokenMinter;
+        this.signingKeyStore = signingKeyStore;
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.objectMapper = objectMapper;
+        this.jwtVerifier = new JwtVerifier(secret, signingKeyStore, acceptHs256);
+        this.iterations = iterations;
+        this.passwordIterations = passwordIterations;
+        this.timeout = Duration.ofSeconds(timeout);
+    }
+
+    /**
+     * Выполняет прогрев. Ключи подписи загружаются заранее, так как плановая загрузка выполняется асинхронно
+     * и к этому моменту может еще не завершиться.
+     *
+     * @param args аргументы запуска приложения.
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        try {
+            connectionPool.warmup()
+                    .doOnNext(connections -> log.info("IN run - {} database connections opened", connections))
+                    .then(signingKeyStore.reload(LocalDateTime.now()))
+                    .then(userRepository.findCredentialsByUsername(USERNAME))
+                    .then(Mono.fromRunnable(this::warmUpTokens))
+                    .then(warmUpPasswordEncoder())
+                    .timeout(timeout)
+                    .block();
+            log.info("IN run - warm-up completed in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("IN run - warm-up failed after {} ms, starting without it",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), e);
+        }
+    }
+
+    /**
+     * Выпускает и проверяет токены и сериализует ответы входа и запроса информации о пользователе.
+     */
+    private void warmUpTokens() {
+        UserEntity user = UserEntity.builder()
+                .id(1L)
+                .username(USERNAME)
+                .role(UserRole.USER)
+                .firstName(USERNAME)
+                .lastName(USERNAME)
+                .enabled(true)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                TokenDetails tokenDetails = tokenMinter.mint(user.getId(), user.getRole(), user.getUsername(), 0);
+                jwtVerifier.verify(tokenDetails.getToken());
+                objectMapper.writeValueAsBytes(AuthResponseDto.builder()
+                        .userId(user.getId())
+                        .token(tokenDetails.getToken())
+                        .issuedAt(tokenDetails.getIssuedAt())
+                        .expiresAt(tokenDetails.getExpiresAt())
+                        .refreshToken(tokenDetails.getToken())
+                        .refreshExpiresAt(tokenDetails.getExpiresAt())
+                        .build());
+                objectMapper.writeValueAsBytes(userMapper.map(user));
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Хэширует и проверяет пароль на потоках кодировщика паролей.
+     *
+     * @return Mono<Void>, завершающийся после всех проверок пароля.
+     */
+    private Mono<Void> warmUpPasswordEncoder() {
+        return Flux.range(0, passwordIterations)
+                .flatMap(i -> passwordEncoder.encode(PASSWORD)
+                        .flatMap(encodedPassword -> passwordEncoder.matches(PASSWORD, encodedPassword)))
+                .then();
+    }
+}
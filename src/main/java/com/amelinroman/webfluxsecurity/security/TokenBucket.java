@@ -0,0 +1,68 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Amelin Roman
+ * Класс TokenBucket реализует неблокирующий алгоритм token bucket.
+ * Количество токенов (в тысячных долях) и время последнего пополнения упакованы в один AtomicLong,
+ * поэтому списание токена выполняется одной операцией compareAndSet без блокировок.
+ */
+public class TokenBucket {
+
+    private static final int TOKEN_BITS = 20;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI_TOKENS = 1000;
+
+    private final long capacity;
+    private final double refillPerMillisecond;
+    private final long createdAt = System.nanoTime();
+    private final AtomicLong state;
+
+    /**
+     * Конструктор класса TokenBucket. Созданное хранилище заполнено полностью.
+     *
+     * @param capacity        максимальное количество токенов.
+     * @param refillPerMinute количество токенов, добавляемых за минуту.
+     */
+    public TokenBucket(int capacity, double refillPerMinute) {
+        if (capacity <= 0 || capacity * MILLI_TOKENS > TOKEN_MASK) {
+            throw new IllegalArgumentException("Token bucket capacity must be between 1 and " + TOKEN_MASK / MILLI_TOKENS);
+        }
+        this.capacity = capacity * MILLI_TOKENS;
+        this.refillPerMillisecond = refillPerMinute * MILLI_TOKENS / 60_000d;
+        this.state = new AtomicLong(this.capacity);
+    }
+
+    /**
+     * Пытается списать один токен.
+     *
+     * @return true, если токен списан, иначе false.
+     */
+    public boolean tryAcquire() {
+        return tryAcquire((System.nanoTime() - createdAt) / 1_000_000);
+    }
+
+    /**
+     * Пытается списать один токен в заданный момент времени.
+     *
+     * @param now время в миллисекундах с момента создания хранилища.
+     * @return true, если токен списан, иначе false.
+     */
+    boolean tryAcquire(long now) {
+        while (true) {
+            long current = state.get();
+            long refilledAt = current >>> TOKEN_BITS;
+            long tokens = current & TOKEN_MASK;
+            long elapsed = Math.max(0, now - refilledAt);
+            long available = Math.min(capacity, tokens + (long) (elapsed * refillPerMillisecond));
+            if (available < MILLI_TOKENS) {
+                return false;
+            }
+            long next = (Math.max(now, refilledAt) << TOKEN_BITS) | (available - MILLI_TOKENS);
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
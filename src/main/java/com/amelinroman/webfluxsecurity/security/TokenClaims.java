@@ -0,0 +1,34 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @author Amelin Roman
+ * Класс TokenClaims содержит Claims JWT-токена, которые используются приложением:
+ * идентификатор пользователя (sub), роль (role), имя пользователя (username), время истечения (exp),
+ * версия безопасности пользователя (ver) и идентификатор токена (jti).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TokenClaims {
+
+    private final Long userId;
+    private final UserRole role;
+    private final String username;
+    private final long expiration;
+    private final int securityVersion;
+    private final String tokenId;
+
+    /**
+     * Возвращает время истечения токена в миллисекундах.
+     *
+     * @return время истечения токена в миллисекундах с начала эпохи.
+     */
+    public long getExpirationMillis() {
+        return expiration * 1000L;
+    }
+}
@@ -0,0 +1,138 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Amelin Roman
+ * Компонент TokenDenylist хранит идентификаторы (jti) отозванных токенов до истечения их срока действия.
+ * Проверка выполняется одним обращением к ConcurrentHashMap. Удаление истекших записей выполняет
+ * колесо таймеров: каждая запись попадает в ячейку, соответствующую такту истечения токена,
+ * и на каждом такте просматривается только наступившая ячейка, без отдельного таймера на запись.
+ * Количество записей ограничено: при переполнении отзыв отклоняется с ошибкой ServiceOverloadedException.
+ */
+@Slf4j
+@Component
+public class TokenDenylist {
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final List<Queue<String>> wheel;
+    private final long tickMillis;
+    private final long maximumSize;
+
+    private long lastSweptTick;
+
+    /**
+     * Конструктор класса TokenDenylist.
+     *
+     * @param expirationInSecond время жизни токена в секундах, определяющее размер колеса.
+     * @param tick               длительность такта колеса в секундах.
+     * @param maximumSize        максимальное количество отозванных токенов.
+     * @param meterRegistry      реестр метрик для публикации количества отозванных токенов.
+     */
+    public TokenDenylist(@Value("${jwt.expiration}") long expirationInSecond,
+                         @Value("${jwt.denylist.tick}") long tick,
+                         @Value("${jwt.denylist.maximum-size}") long maximumSize,
+                         MeterRegistry meterRegistry) {
+        this.tickMillis = TimeUnit.SECONDS.toMillis(tick);
+        this.maximumSize = maximumSize;
+        int slots = (int) (expirationInSecond / tick) + 2;
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+        this.lastSweptTick = System.currentTimeMillis() / tickMillis;
+
+        Gauge.builder("auth.denylist.size", revoked, Map::size)
+                .description("Количество отозванных токенов, срок действия которых еще не истек")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Отзывает токен до истечения срока его действия.
+     *
+     * @param tokenId          идентификатор токена (jti).
+     * @param expirationMillis время истечения токена в миллисекундах с начала эпохи.
+     * @throws ServiceOverloadedException если количество отозванных токенов достигло предела.
+     */
+    public void revoke(String tokenId, long expirationMillis) {
+        if (expirationMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        if (revoked.size() >= maximumSize) {
+            throw new ServiceOverloadedException("Token denylist is full");
+        }
+        if (revoked.putIfAbsent(tokenId, expirationMillis) == null) {
+            wheel.get(slot(Math.floorDiv(expirationMillis + tickMillis - 1, tickMillis))).add(tokenId);
+        }
+    }
+
+    /**
+     * Проверяет, отозван ли токен.
+     *
+     * @param tokenId идентификатор токена (jti).
+     * @return true, если токен отозван.
+     */
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Удаляет записи токенов, срок действия которых истек, на каждом такте колеса.
+     */
+    @Scheduled(fixedDelayString = "${jwt.denylist.tick}", timeUnit = TimeUnit.SECONDS)
+    public void sweep() {
+        sweep(System.currentTimeMillis());
+    }
+
+    /**
+     * Просматривает ячейки колеса, такты которых наступили с момента предыдущего просмотра.
+     * Записи из ячейки, срок действия которых еще не истек (следующий оборот колеса), возвращаются в нее.
+     *
+     * @param now текущее время в миллисекундах с начала эпохи.
+     */
+    synchronized void sweep(long now) {
+        long currentTick = now / tickMillis;
+        long firstTick = Math.max(lastSweptTick + 1, currentTick - wheel.size() + 1);
+        int removed = 0;
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            Queue<String> bucket = wheel.get(slot(tick));
+            List<String> pending = new ArrayList<>();
+            String tokenId;
+            while ((tokenId = bucket.poll()) != null) {
+                Long expirationMillis = revoked.get(tokenId);
+                if (expirationMillis == null) {
+                    continue;
+                }
+                if (expirationMillis <= now) {
+                    revoked.remove(tokenId);
+                    removed++;
+                } else {
+                    pending.add(tokenId);
+                }
+            }
+            bucket.addAll(pending);
+        }
+        lastSweptTick = currentTick;
+        if (removed > 0) {
+            log.debug("IN sweep - {} expired revoked tokens removed", removed);
+        }
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) wheel.size());
+    }
+}
@@ -9,7 +9,7 @@ import java.util.Date;
 
 /**
  * @author Amelin Roman
- * Класс TokenDetails содержит информацию о JWT-токене и его сроке действия.
+ * Класс TokenDetails содержит информацию о JWT-токене, refresh-токене и сроках их действия.
  * Этот класс используется для передачи информации о токене между методами и слоями приложения.
  */
 
@@ -23,4 +23,6 @@ public class TokenDetails {
     private String token;
     private Date issuedAt;
     private Date expiresAt;
+    private String refreshToken;
+    private Date refreshExpiresAt;
 }
@@ -0,0 +1,151 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Amelin Roman
+ * Компонент TokenMinter выпускает JWT-токены, подписанные активным ключом из SigningKeyStore.
+ * Закодированный заголовок и объект Signature, инициализированный закрытым ключом, создаются один раз для каждого ключа,
+ * фрагмент JSON с издателем — при создании компонента, а payload с фиксированным набором Claims записывается в JSON
+ * напрямую, без промежуточных Map и ObjectMapper.
+ * Идентификатор токена (jti) состоит из случайного префикса экземпляра приложения, полученного один раз из SecureRandom,
+ * и счетчика, поэтому он уникален и выдается без обращения к SecureRandom на каждый токен.
+ */
+@Component
+public class TokenMinter {
+
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final int TOKEN_ID_PREFIX_BYTES = 9;
+
+    private final SigningKeyStore signingKeyStore;
+    private final String issuerClaim;
+    private final long expirationMillis;
+    private final String tokenIdPrefix;
+    private final AtomicLong tokenIdCounter = new AtomicLong();
+
+    private volatile MintingKey mintingKey;
+
+    /**
+     * Конструктор класса TokenMinter.
+     *
+     * @param signingKeyStore хранилище ключей подписи.
+     * @param issuer          издатель токенов (iss).
+     * @param expiration      время жизни токена в секундах.
+     */
+    public TokenMinter(SigningKeyStore signingKeyStore,
+                       @Value("${jwt.issuer}") String issuer,
+                       @Value("${jwt.expiration}") long expiration) {
+        this.signingKeyStore = signingKeyStore;
+        this.issuerClaim = ",\"iss\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(issuer)) + "\"";
+        this.expirationMillis = expiration * 1000L;
+        byte[] prefix = new byte[TOKEN_ID_PREFIX_BYTES];
+        new SecureRandom().nextBytes(prefix);
+        this.tokenIdPrefix = BASE64_URL_ENCODER.encodeToString(prefix);
+    }
+
+    /**
+     * Выпускает JWT-токен для пользователя.
+     *
+     * @param userId          идентификатор пользователя (sub).
+     * @param role            роль пользователя (role).
+     * @param username        имя пользователя (username).
+     * @param securityVersion версия безопасности пользователя (ver).
+     * @return объект TokenDetails, содержащий токен, время выпуска и время истечения.
+     */
+    public TokenDetails mint(Long userId, UserRole role, String username, int securityVersion) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + expirationMillis;
+
+        StringBuilder payload = new StringBuilder(192)
+                .append("{\"role\":\"").append(role.name())
+                .append("\",\"username\":\"");
+        JsonStringEncoder.getInstance().quoteAsString(username, payload);
+        payload.append("\",\"ver\":").append(securityVersion)
+                .append(issuerClaim)
+                .append(",\"sub\":\"").append(userId)
+                .append("\",\"iat\":").append(now / 1000)
+                .append(",\"jti\":\"").append(nextTokenId())
+                .append("\",\"exp\":").append(expiresAt / 1000)
+                .append('}');
+
+        MintingKey key = mintingKey();
+        String signingInput = key.encodedHeader + BASE64_URL_ENCODER.encodeToString(payload.toString().getBytes(StandardCharsets.UTF_8));
+        String token = signingInput + "." + BASE64_URL_ENCODER.encodeToString(key.sign(signingInput.getBytes(StandardCharsets.US_ASCII)));
+
+        return TokenDetails.builder()
+                .token(token)
+                .issuedAt(new Date(now))
+                .expiresAt(new Date(expiresAt))
+                .build();
+    }
+
+    /**
+     * Возвращает следующий идентификатор токена.
+     *
+     * @return идентификатор токена.
+     */
+    String nextTokenId() {
+        return tokenIdPrefix + Long.toString(tokenIdCounter.getAndIncrement(), 36);
+    }
+
+    /**
+     * Возвращает подготовленный активный ключ. Ключи сравниваются по kid: после перечитывания ключей
+     * SigningKeyStore возвращает новые объекты тех же ключей, и подготовленный ключ используется повторно.
+     * Заново он создается, только если активным стал другой ключ, например после ротации.
+     */
+    MintingKey mintingKey() {
+        SigningKey signingKey = signingKeyStore.activeKey();
+        MintingKey current = mintingKey;
+        if (current == null || !current.signingKey.getKid().equals(signingKey.getKid())) {
+            current = new MintingKey(signingKey);
+            mintingKey = current;
+        }
+        return current;
+    }
+
+    /**
+     * Ключ подписи с закодированным заголовком токена и объектами Signature для каждого потока.
+     * После sign() объект Signature возвращается в состояние после initSign и используется повторно.
+     */
+    static class MintingKey {
+        private final SigningKey signingKey;
+        private final String encodedHeader;
+        private final ThreadLocal<Signature> signatures;
+
+        private MintingKey(SigningKey signingKey) {
+            this.signingKey = signingKey;
+            String header = "{\"alg\":\"" + signingKey.getAlgorithm().name() + "\",\"typ\":\"JWT\",\"kid\":\"" + signingKey.getKid() + "\"}";
+            this.encodedHeader = BASE64_URL_ENCODER.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + ".";
+            this.signatures = ThreadLocal.withInitial(() -> {
+                try {
+                    Signature signature = Signature.getInstance(signingKey.getAlgorithm().getSignatureAlgorithm());
+                    signature.initSign(signingKey.getPrivateKey());
+                    return signature;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+
+        private byte[] sign(byte[] data) {
+            Signature signature = signatures.get();
+            try {
+                signature.update(data);
+                return signature.sign();
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.amelinroman.webfluxsecurity.security;
 
-import io.jsonwebtoken.Claims;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import reactor.core.publisher.Mono;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Amelin Roman
@@ -15,23 +17,32 @@ import java.util.List;
  */
 public class UserAuthenticationBearer {
 
+    /**
+     * Неизменяемые списки полномочий, заранее созданные для каждой роли пользователя.
+     */
+    private static final Map<UserRole, List<SimpleGrantedAuthority>> AUTHORITIES = new EnumMap<>(UserRole.class);
+
+    static {
+        for (UserRole role : UserRole.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority(role.name())));
+        }
+    }
+
     /**
      * Создает объект аутентификации с основной информацией о пользователе, извлеченной из верифицированных Claims JWT-токена.
+     * Claims токена сохраняются в details объекта аутентификации.
      *
      * @param verificationResult Результат верификации JWT-токена, содержащий Claims токена.
      * @return Mono<Authentication> объект аутентификации с информацией о пользователе из JWT-токена.
      */
     public static Mono<Authentication> create(JwtHandler.VerificationResult verificationResult) {
-        Claims claims = verificationResult.claims;
-        String subject = claims.getSubject();
-        String role = claims.get("role", String.class);
-        String username = claims.get("username", String.class);
-
-        List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(role));
+        TokenClaims claims = verificationResult.claims;
+        CustomPrincipal principal = new CustomPrincipal(claims.getUserId(), claims.getUsername());
 
-        Long principalId = Long.parseLong(subject);
-        CustomPrincipal principal = new CustomPrincipal(principalId, username);
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(principal, null, AUTHORITIES.get(claims.getRole()));
+        authentication.setDetails(claims);
 
-        return Mono.justOrEmpty(new UsernamePasswordAuthenticationToken(principal, null, authorities));
+        return Mono.just(authentication);
     }
 }
@@ -0,0 +1,104 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @author Amelin Roman
+ * Компонент VerifiedTokenCache хранит результаты успешной проверки JWT-токенов.
+ * Ключом записи является SHA-256 дайджест токена, запись удаляется в момент истечения токена (claim exp),
+ * количество записей ограничено. Повторный запрос с тем же токеном не требует проверки подписи и разбора Claims.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Cache<ByteBuffer, JwtHandler.VerificationResult> cache;
+
+    /**
+     * Конструктор класса VerifiedTokenCache.
+     *
+     * @param maximumSize максимальное количество токенов в кэше.
+     */
+    public VerifiedTokenCache(@Value("${jwt.cache.maximum-size}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Возвращает результат проверки токена из кэша либо проверяет токен с помощью переданной функции.
+     * Ошибки проверки в кэш не попадают.
+     *
+     * @param token    JWT-токен.
+     * @param verifier функция полной проверки токена.
+     * @return объект VerificationResult с результатом проверки токена.
+     */
+    public JwtHandler.VerificationResult get(String token, Function<String, JwtHandler.VerificationResult> verifier) {
+        return cache.get(digest(token), key -> verifier.apply(token));
+    }
+
+    /**
+     * Удаляет результат проверки токена из кэша.
+     *
+     * @param token JWT-токен.
+     */
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    /**
+     * Возвращает статистику кэша: количество попаданий, промахов и вытеснений.
+     *
+     * @return объект CacheStats с накопленной статистикой.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Политика устаревания, при которой запись живет до момента истечения токена.
+     */
+    private static class TokenExpiry implements Expiry<ByteBuffer, JwtHandler.VerificationResult> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, JwtHandler.VerificationResult value, long currentTime) {
+            long millisToExpiration = value.claims.getExpirationMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millisToExpiration));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, JwtHandler.VerificationResult value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, JwtHandler.VerificationResult value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
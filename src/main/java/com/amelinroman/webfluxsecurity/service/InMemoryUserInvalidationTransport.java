@@ -0,0 +1,31 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+/**
+ * @author Amelin Roman
+ * Компонент InMemoryUserInvalidationTransport рассылает сообщения об изменении пользователей
+ * подписчикам внутри одного процесса. Используется в тестах и при запуске одного экземпляра приложения.
+ */
+@Component
+@ConditionalOnProperty(name = "user.invalidation.transport", havingValue = "memory")
+public class InMemoryUserInvalidationTransport implements UserInvalidationTransport {
+
+    private final Sinks.Many<UserInvalidation> sink = Sinks.many().multicast().directBestEffort();
+
+    @Override
+    public Flux<UserInvalidation> subscribe() {
+        return sink.asFlux();
+    }
+
+    @Override
+    public Mono<Void> publish(UserInvalidation invalidation) {
+        return Mono.fromRunnable(() -> sink.emitNext(invalidation, Sinks.EmitFailureHandler.busyLooping(Duration.ofSeconds(1))));
+    }
+}
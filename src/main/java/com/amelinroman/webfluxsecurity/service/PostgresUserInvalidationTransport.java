@@ -0,0 +1,98 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.postgresql.api.PostgresqlConnection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * @author Amelin Roman
+ * Компонент PostgresUserInvalidationTransport получает сообщения об изменении пользователей через
+ * LISTEN/NOTIFY PostgreSQL. Сообщения отправляет триггер на таблице users в той же транзакции, что и изменение,
+ * поэтому они доходят до всех экземпляров приложения независимо от того, каким кодом изменен пользователь.
+ * Для прослушивания открывается отдельное соединение в обход пула. Сообщения, отправленные, пока соединение
+ * разорвано, теряются, поэтому после каждого подключения выдается {@link UserInvalidation#ALL}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "user.invalidation.transport", havingValue = "postgres", matchIfMissing = true)
+public class PostgresUserInvalidationTransport implements UserInvalidationTransport {
+
+    static final String CHANNEL = "user_changed";
+
+    private final ConnectionFactory connectionFactory;
+    private final DatabaseClient databaseClient;
+    private final Duration reconnectDelay;
+
+    /**
+     * Конструктор класса PostgresUserInvalidationTransport.
+     *
+     * @param connectionFactory фабрика соединений приложения; для прослушивания используется фабрика под пулом.
+     * @param databaseClient    клиент базы данных для отправки сообщений.
+     * @param reconnectDelay    начальная задержка переподключения после разрыва соединения в секундах.
+     */
+    public PostgresUserInvalidationTransport(ConnectionFactory connectionFactory,
+                                             DatabaseClient databaseClient,
+                                             @Value("${user.invalidation.reconnect-delay}") long reconnectDelay) {
+        this.connectionFactory = connectionFactory instanceof ConnectionPool pool ? pool.unwrap() : connectionFactory;
+        this.databaseClient = databaseClient;
+        this.reconnectDelay = Duration.ofSeconds(reconnectDelay);
+    }
+
+    @Override
+    public Flux<UserInvalidation> subscribe() {
+        return Flux.usingWhen(
+                        Mono.from(connectionFactory.create()).cast(PostgresqlConnection.class),
+                        connection -> connection.createStatement("LISTEN " + CHANNEL)
+                                .execute()
+                                .flatMap(result -> result.getRowsUpdated())
+                                .thenMany(Flux.concat(
+                                        Mono.just(UserInvalidation.ALL),
+                                        connection.getNotifications()
+                                                .handle((notification, sink) -> {
+                                                    UserInvalidation invalidation = parse(notification.getParameter());
+                                                    if (invalidation != null) {
+                                                        sink.next(invalidation);
+                                                    }
+                                                }),
+                                        Mono.error(() -> new IllegalStateException("Listener connection closed")))),
+                        PostgresqlConnection::close)
+                .doOnError(e -> log.warn("IN subscribe - user invalidation listener failed, reconnecting", e))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, reconnectDelay)
+                        .maxBackoff(reconnectDelay.multipliedBy(12))
+                        .transientErrors(true));
+    }
+
+    /**
+     * Разбирает сообщение из канала. Некорректное сообщение пропускается, чтобы оно не разрывало подписку
+     * и не вызывало переподключение и полную очистку кэшей на всех экземплярах приложения.
+     *
+     * @param payload содержимое уведомления.
+     * @return разобранное сообщение или null, если сообщение некорректно.
+     */
+    static UserInvalidation parse(String payload) {
+        try {
+            return UserInvalidation.parse(payload);
+        } catch (RuntimeException e) {
+            log.warn("IN subscribe - malformed user invalidation skipped: {}", payload);
+            return null;
+        }
+    }
+
+    @Override
+    public Mono<Void> publish(UserInvalidation invalidation) {
+        return databaseClient.sql("SELECT pg_notify(:channel, :payload)")
+                .bind("channel", CHANNEL)
+                .bind("payload", invalidation.format())
+                .then();
+    }
+}
@@ -0,0 +1,183 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import com.amelinroman.webfluxsecurity.entity.RefreshTokenEntity;
+import com.amelinroman.webfluxsecurity.exception.UnauthorizedException;
+import com.amelinroman.webfluxsecurity.repository.RefreshTokenRepository;
+import com.amelinroman.webfluxsecurity.security.TokenDetails;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Amelin Roman
+ * Класс-сервис RefreshTokenService выпускает и ротирует refresh-токены.
+ * Каждый refresh-токен одноразовый: при обновлении сессии он помечается использованным и заменяется новым
+ * токеном того же семейства. Повторное предъявление уже использованного токена означает его утечку,
+ * поэтому все токены семейства отзываются. Истекшие токены удаляются в фоне пакетами.
+ */
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    private static final int TOKEN_LENGTH = 32;
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder BASE64_URL_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long expirationInSecond;
+    private final int purgeBatchSize;
+
+    /**
+     * Конструктор класса RefreshTokenService.
+     *
+     * @param refreshTokenRepository репозиторий refresh-токенов.
+     * @param expirationInSecond     время жизни refresh-токена в секундах.
+     * @param purgeBatchSize         количество истекших токенов, удаляемых одним запросом.
+     */
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               @Value("${jwt.refresh.expiration}") long expirationInSecond,
+                               @Value("${jwt.refresh.purge-batch-size}") int purgeBatchSize) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.expirationInSecond = expirationInSecond;
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    /**
+     * Выпускает refresh-токен нового семейства при входе пользователя в систему.
+     *
+     * @param userId идентификатор пользователя.
+     * @return Mono<TokenDetails> с идентификатором пользователя, refresh-токеном и сроком его действия.
+     */
+    public Mono<TokenDetails> issue(Long userId) {
+        return issue(userId, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Ротирует refresh-токен: помечает его использованным и выпускает новый токен того же семейства.
+     * Если токен уже был использован, отзывает все токены семейства.
+     *
+     * @param refreshToken предъявленный refresh-токен.
+     * @return Mono<TokenDetails> с идентификатором пользователя, новым refresh-токеном и сроком его действия.
+     * @throws UnauthorizedException если токен неизвестен, отозван, истек или использован повторно.
+     */
+    public Mono<TokenDetails> rotate(String refreshToken) {
+        return refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .switchIfEmpty(Mono.error(invalid()))
+                .flatMap(entity -> {
+                    if (entity.isRevoked()) {
+                        return Mono.error(invalid());
+                    }
+                    if (entity.getExpiresAt().isBefore(LocalDateTime.now())) {
+                        return Mono.error(new UnauthorizedException("Refresh token expired", "PROSELYTE_REFRESH_TOKEN_EXPIRED"));
+                    }
+
+                    return refreshTokenRepository.markRotated(entity.getId())
+                            .flatMap(updated -> updated > 0
+                                    ? issue(entity.getUserId(), entity.getFamilyId())
+                                    : revokeReusedFamily(entity));
+                });
+    }
+
+    /**
+     * Отзывает все токены семейства, к которому относится refresh-токен пользователя.
+     * Неизвестный токен и токен другого пользователя игнорируются.
+     *
+     * @param refreshToken refresh-токен.
+     * @param userId       идентификатор пользователя, выполняющего отзыв.
+     * @return Mono<Void>, завершающийся после отзыва семейства.
+     */
+    public Mono<Void> revoke(String refreshToken, Long userId) {
+        return refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .filter(entity -> {
+                    if (entity.getUserId().equals(userId)) {
+                        return true;
+                    }
+                    log.warn("IN revoke - user {} attempted to revoke refresh token family of user {}", userId, entity.getUserId());
+                    return false;
+                })
+                .flatMap(entity -> refreshTokenRepository.revokeFamily(entity.getFamilyId()))
+                .then();
+    }
+
+    /**
+     * Периодически удаляет истекшие refresh-токены.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval}", timeUnit = TimeUnit.SECONDS)
+    public void purgeExpired() {
+        purgeExpired(LocalDateTime.now()).subscribe(
+                deleted -> {
+                    if (deleted > 0) {
+                        log.info("IN purgeExpired - {} expired refresh tokens deleted", deleted);
+                    }
+                },
+                e -> log.error("IN purgeExpired - failed to delete expired refresh tokens", e));
+    }
+
+    /**
+     * Удаляет истекшие refresh-токены пакетами, пока очередной пакет не окажется неполным.
+     *
+     * @param expiredBefore момент, до которого токены считаются истекшими.
+     * @return Mono<Long> с общим количеством удаленных токенов.
+     */
+    Mono<Long> purgeExpired(LocalDateTime expiredBefore) {
+        return refreshTokenRepository.deleteExpired(expiredBefore, purgeBatchSize)
+                .expand(deleted -> deleted < purgeBatchSize
+                        ? Mono.empty()
+                        : refreshTokenRepository.deleteExpired(expiredBefore, purgeBatchSize))
+                .reduce(0L, (total, deleted) -> total + deleted);
+    }
+
+    private Mono<TokenDetails> issue(Long userId, String familyId) {
+        byte[] bytes = new byte[TOKEN_LENGTH];
+        RANDOM.nextBytes(bytes);
+        String refreshToken = BASE64_URL_ENCODER.encodeToString(bytes);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusSeconds(expirationInSecond);
+
+        return refreshTokenRepository.save(RefreshTokenEntity.builder()
+                        .tokenHash(hash(refreshToken))
+                        .familyId(familyId)
+                        .userId(userId)
+                        .expiresAt(expiresAt)
+                        .createdAt(now)
+                        .build())
+                .map(entity -> TokenDetails.builder()
+                        .userId(userId)
+                        .refreshToken(refreshToken)
+                        .refreshExpiresAt(Timestamp.valueOf(expiresAt))
+                        .build());
+    }
+
+    private Mono<TokenDetails> revokeReusedFamily(RefreshTokenEntity entity) {
+        return refreshTokenRepository.revokeFamily(entity.getFamilyId())
+                .doOnSuccess(revoked -> log.warn("IN rotate - refresh token reuse detected, family {} of user {} revoked",
+                        entity.getFamilyId(), entity.getUserId()))
+                .then(Mono.error(new UnauthorizedException("Refresh token reused", "PROSELYTE_REFRESH_TOKEN_REUSED")));
+    }
+
+    private static UnauthorizedException invalid() {
+        return new UnauthorizedException("Invalid refresh token", "PROSELYTE_INVALID_REFRESH_TOKEN");
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(String.valueOf(refreshToken).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * @author Amelin Roman
+ * Класс SingleFlight объединяет одновременные загрузки по одному ключу: пока загрузка выполняется,
+ * все запросы с тем же ключом получают ее результат, а не запускают свою. Загрузка удаляется сразу
+ * после завершения, поэтому результат не кэшируется и следующий запрос запускает новую загрузку.
+ * Количество объединенных запросов публикуется счетчиком user.lookup.deduplicated с тегом lookup.
+ *
+ * @param <K> тип ключа.
+ * @param <V> тип результата загрузки.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter deduplicatedCounter;
+
+    /**
+     * Конструктор класса SingleFlight.
+     *
+     * @param lookup        имя загрузки для тега метрики.
+     * @param meterRegistry реестр метрик.
+     */
+    public SingleFlight(String lookup, MeterRegistry meterRegistry) {
+        this.deduplicatedCounter = Counter.builder("user.lookup.deduplicated")
+                .description("Количество запросов, получивших результат уже выполняющейся загрузки")
+                .tag("lookup", lookup)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает результат загрузки по ключу. Если загрузка с тем же ключом уже выполняется,
+     * возвращается ее результат, иначе запускается новая загрузка.
+     * Отмена подписки не отменяет общую загрузку, чтобы не прерывать её для остальных подписчиков.
+     *
+     * @param key    ключ загрузки.
+     * @param loader функция загрузки.
+     * @return Mono с результатом загрузки или Mono.empty(), если загрузка завершилась без значения.
+     */
+    public Mono<V> execute(K key, Function<K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            CompletableFuture<V> call = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+            if (existing != null) {
+                deduplicatedCounter.increment();
+                return Mono.fromFuture(existing, true);
+            }
+
+            Mono.defer(() -> loader.apply(key))
+                    .toFuture()
+                    .whenComplete((value, e) -> {
+                        inFlight.remove(key, call);
+                        if (e != null) {
+                            call.completeExceptionally(e);
+                        } else {
+                            call.complete(value);
+                        }
+                    });
+            return Mono.fromFuture(call, true);
+        });
+    }
+
+    /**
+     * Возвращает количество выполняющихся загрузок.
+     *
+     * @return количество выполняющихся загрузок.
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
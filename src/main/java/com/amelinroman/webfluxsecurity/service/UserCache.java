@@ -0,0 +1,144 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Amelin Roman
+ * Компонент UserCache хранит в памяти пользователей, загруженных по идентификатору,
+ * и отдельно — признаки активности пользователей, которые проверяются при каждом запросе с токеном.
+ * Кэш ограничен по количеству записей, записи устаревают по истечении TTL и могут быть
+ * явно удалены при изменении или отключении пользователя.
+ * Загрузку при промахе выполняет вызывающий код. Чтобы загрузка, начатая до удаления пользователя из кэша,
+ * не вернула в кэш устаревшие данные, перед загрузкой берется отметка {@link #stamp()}, и запись с отметкой,
+ * после которой кэш очищался, удаляется сразу после добавления.
+ * Статистика обоих кэшей публикуется в Micrometer метриками cache.* с тегом cache: users и user_enabled.
+ */
+@Component
+public class UserCache {
+
+    private final Cache<Long, UserEntity> cache;
+    private final Cache<Long, Boolean> enabledCache;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Конструктор класса UserCache.
+     *
+     * @param maximumSize         максимальное количество пользователей в кэше.
+     * @param expirationInSeconds время жизни записи в секундах.
+     * @param meterRegistry       реестр метрик для публикации статистики кэшей.
+     */
+    public UserCache(@Value("${user.cache.maximum-size}") long maximumSize,
+                     @Value("${user.cache.expiration}") long expirationInSeconds,
+                     MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expirationInSeconds))
+                .recordStats()
+                .build();
+        this.enabledCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expirationInSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+        CaffeineCacheMetrics.monitor(meterRegistry, enabledCache, "user_enabled");
+    }
+
+    /**
+     * Возвращает отметку, которую нужно взять перед загрузкой пользователя и передать при добавлении в кэш.
+     *
+     * @return текущая отметка очистки кэша.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Возвращает пользователя из кэша.
+     *
+     * @param id идентификатор пользователя.
+     * @return Mono<UserEntity> закэшированный пользователь или Mono.empty(), если его нет в кэше.
+     */
+    public Mono<UserEntity> getIfPresent(Long id) {
+        return Mono.justOrEmpty(cache.getIfPresent(id));
+    }
+
+    /**
+     * Добавляет загруженного пользователя в кэш.
+     *
+     * @param user  загруженный пользователь.
+     * @param stamp отметка, взятая перед загрузкой.
+     */
+    public void put(UserEntity user, long stamp) {
+        cache.put(user.getId(), user);
+        if (invalidations.get() != stamp) {
+            cache.invalidate(user.getId());
+        }
+    }
+
+    /**
+     * Возвращает признак активности пользователя из кэша. Если пользователь есть в кэше, признак берется из него;
+     * это обращение не учитывается в статистике кэша пользователей, чтобы она отражала только загрузку пользователей.
+     *
+     * @param id идентификатор пользователя.
+     * @return Mono<Boolean> закэшированный признак активности или Mono.empty(), если его нет в кэше.
+     */
+    public Mono<Boolean> getEnabledIfPresent(Long id) {
+        UserEntity user = cache.asMap().get(id);
+        return Mono.justOrEmpty(user != null ? Boolean.valueOf(user.isEnabled()) : enabledCache.getIfPresent(id));
+    }
+
+    /**
+     * Добавляет загруженный признак активности пользователя в кэш.
+     *
+     * @param id      идентификатор пользователя.
+     * @param enabled признак активности.
+     * @param stamp   отметка, взятая перед загрузкой.
+     */
+    public void putEnabled(Long id, boolean enabled, long stamp) {
+        enabledCache.put(id, enabled);
+        if (invalidations.get() != stamp) {
+            enabledCache.invalidate(id);
+        }
+    }
+
+    /**
+     * Удаляет пользователя и его признак активности из кэша.
+     *
+     * @param id идентификатор пользователя.
+     */
+    public void invalidate(Long id) {
+        invalidations.incrementAndGet();
+        cache.invalidate(id);
+        enabledCache.invalidate(id);
+    }
+
+    /**
+     * Удаляет всех пользователей из кэша.
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+        enabledCache.invalidateAll();
+    }
+
+    /**
+     * Возвращает статистику кэша: количество попаданий, промахов и вытеснений.
+     *
+     * @return объект CacheStats с накопленной статистикой.
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+}
@@ -0,0 +1,198 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import com.amelinroman.webfluxsecurity.dto.UserImportResultDto;
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import com.amelinroman.webfluxsecurity.security.ReactivePasswordEncoder;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Statement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Amelin Roman
+ * Класс-сервис UserImportService выполняет массовую регистрацию пользователей из потока записей.
+ * Пароли хэшируются на пуле хэширования с ограниченным параллелизмом, порядок записей сохраняется.
+ * Записи вставляются пакетами: все записи пакета передаются одним пакетным выражением R2DBC,
+ * а имена, которые уже заняты, пропускаются (ON CONFLICT DO NOTHING) и возвращаются как конфликты.
+ * Следующий пакет запрашивается только после вставки предыдущего, поэтому входной поток читается
+ * со скоростью вставки, а память ограничена размером пакета.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private static final String INSERT_USER = "INSERT INTO users (username, password, role, first_name, last_name, enabled, created_at, updated_at) "
+            + "VALUES ($1, $2, $3, $4, $5, $6, $7, $8) ON CONFLICT DO NOTHING";
+
+    private final DatabaseClient databaseClient;
+    private final ReactivePasswordEncoder passwordEncoder;
+    private final int hashingConcurrency;
+    private final int chunkSize;
+
+    /**
+     * Конструктор класса UserImportService.
+     *
+     * @param databaseClient     клиент базы данных для пакетной вставки.
+     * @param passwordEncoder    кодировщик паролей.
+     * @param hashingConcurrency максимальное количество паролей, хэшируемых одновременно.
+     * @param chunkSize          количество записей в одном пакете вставки.
+     */
+    public UserImportService(DatabaseClient databaseClient,
+                             ReactivePasswordEncoder passwordEncoder,
+                             @Value("${user.import.hashing-concurrency}") int hashingConcurrency,
+                             @Value("${user.import.chunk-size}") int chunkSize) {
+        this.databaseClient = databaseClient;
+        this.passwordEncoder = passwordEncoder;
+        this.hashingConcurrency = hashingConcurrency;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Импортирует пользователей и возвращает результат по каждой записи в порядке входного потока.
+     *
+     * @param users поток пользователей с незакодированными паролями.
+     * @return Flux<UserImportResultDto> с результатами импорта.
+     */
+    public Flux<UserImportResultDto> importUsers(Flux<UserEntity> users) {
+        return users.index()
+                .flatMapSequential(record -> prepare(record.getT1() + 1, record.getT2()), hashingConcurrency)
+                .buffer(chunkSize)
+                .concatMap(this::insertChunk);
+    }
+
+    /**
+     * Проверяет запись и кодирует пароль.
+     *
+     * @param line номер записи во входном потоке.
+     * @param user пользователь.
+     * @return Mono<PendingUser> с подготовленным пользователем или с результатом ошибки проверки.
+     */
+    private Mono<PendingUser> prepare(long line, UserEntity user) {
+        String error = validate(user);
+        if (error != null) {
+            return Mono.just(new PendingUser(line, user, result(line, user, UserImportResultDto.INVALID).error(error).build()));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return passwordEncoder.encode(user.getPassword())
+                .map(encodedPassword -> new PendingUser(line, user.toBuilder()
+                        .username(UserService.normalizeUsername(user.getUsername()))
+                        .password(encodedPassword)
+                        .role(UserRole.USER)
+                        .enabled(true)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build(), null))
+                .onErrorResume(e -> Mono.just(new PendingUser(line, user,
+                        result(line, user, UserImportResultDto.FAILED).error(e.getMessage()).build())));
+    }
+
+    /**
+     * Вставляет пакет пользователей одним пакетным выражением и формирует результаты в порядке записей.
+     *
+     * @param chunk пакет подготовленных пользователей.
+     * @return Flux<UserImportResultDto> с результатами импорта пакета.
+     */
+    private Flux<UserImportResultDto> insertChunk(List<PendingUser> chunk) {
+        List<PendingUser> valid = chunk.stream()
+                .filter(pending -> pending.result == null)
+                .toList();
+        if (valid.isEmpty()) {
+            return Flux.fromIterable(chunk).map(pending -> pending.result);
+        }
+
+        return databaseClient.inConnectionMany(connection -> Flux.from(insertStatement(connection, valid).execute())
+                        .concatMap(result -> result.map((row, metadata) -> new Object[]{
+                                row.get("username", String.class), row.get("id", Number.class)})))
+                .collectMap(row -> (String) row[0], row -> ((Number) row[1]).longValue(), HashMap::new)
+                .flatMapMany(created -> Flux.fromIterable(chunk).map(pending -> pending.result != null
+                        ? pending.result
+                        : toResult(pending, created)))
+                .onErrorResume(e -> {
+                    log.error("IN insertChunk - failed to insert {} users", valid.size(), e);
+                    return Flux.fromIterable(chunk).map(pending -> pending.result != null
+                            ? pending.result
+                            : result(pending.line, pending.user, UserImportResultDto.FAILED).error(e.getMessage()).build());
+                });
+    }
+
+    private Statement insertStatement(Connection connection, List<PendingUser> users) {
+        Statement statement = connection.createStatement(INSERT_USER);
+        for (int i = 0; i < users.size(); i++) {
+            if (i > 0) {
+                statement.add();
+            }
+            UserEntity user = users.get(i).user;
+            statement.bind(0, user.getUsername())
+                    .bind(1, user.getPassword())
+                    .bind(2, user.getRole().name())
+                    .bind(3, user.getFirstName())
+                    .bind(4, user.getLastName())
+                    .bind(5, user.isEnabled())
+                    .bind(6, user.getCreatedAt())
+                    .bind(7, user.getUpdatedAt());
+        }
+        return statement.returnGeneratedValues("id", "username");
+    }
+
+    /**
+     * Формирует результат вставки записи. Первая запись с именем, вставленным в этом пакете, считается созданной,
+     * остальные записи с тем же именем и записи с уже занятыми именами — конфликтами.
+     */
+    private static UserImportResultDto toResult(PendingUser pending, Map<String, Long> created) {
+        Long id = created.remove(pending.user.getUsername());
+        if (id != null) {
+            return result(pending.line, pending.user, UserImportResultDto.CREATED).id(id).build();
+        }
+        return result(pending.line, pending.user, UserImportResultDto.CONFLICT).error("Username already exists").build();
+    }
+
+    private static UserImportResultDto.UserImportResultDtoBuilder result(long line, UserEntity user, String status) {
+        return UserImportResultDto.builder()
+                .line(line)
+                .username(user.getUsername())
+                .status(status);
+    }
+
+    private static String validate(UserEntity user) {
+        if (isBlank(user.getUsername())) {
+            return "Username is required";
+        }
+        if (isBlank(user.getPassword())) {
+            return "Password is required";
+        }
+        if (isBlank(user.getFirstName()) || isBlank(user.getLastName())) {
+            return "First name and last name are required";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Запись, подготовленная к вставке, или результат ее отклонения до вставки.
+     */
+    private static class PendingUser {
+        private final long line;
+        private final UserEntity user;
+        private final UserImportResultDto result;
+
+        PendingUser(long line, UserEntity user, UserImportResultDto result) {
+            this.line = line;
+            this.user = user;
+            this.result = result;
+        }
+    }
+}
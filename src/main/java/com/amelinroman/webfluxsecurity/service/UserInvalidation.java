@@ -0,0 +1,105 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * @author Amelin Roman
+ * Класс UserInvalidation описывает сообщение об изменении пользователя, которое рассылается всем экземплярам
+ * приложения: идентификатор пользователя, признак активности и версию безопасности после изменения.
+ * Сообщение об отзыве токена при выходе из системы вместо признака активности и версии содержит
+ * идентификатор (jti) и время истечения отозванного токена.
+ * Сообщение {@link #ALL} означает, что часть сообщений могла быть потеряна и кэши нужно очистить полностью.
+ * В канале сообщение передается строкой {@code <id>,<enabled>,<security_version>},
+ * а сообщение об отзыве токена — строкой {@code <id>,token,<jti>,<expiration_millis>}.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class UserInvalidation {
+
+    public static final UserInvalidation ALL = new UserInvalidation(null, false, 0);
+
+    private static final String TOKEN_REVOCATION = "token";
+
+    private final Long userId;
+    private final boolean enabled;
+    private final int securityVersion;
+    private final String tokenId;
+    private final long tokenExpirationMillis;
+
+    /**
+     * Конструктор сообщения об изменении пользователя.
+     *
+     * @param userId          идентификатор пользователя.
+     * @param enabled         признак активности пользователя после изменения.
+     * @param securityVersion версия безопасности пользователя после изменения.
+     */
+    public UserInvalidation(Long userId, boolean enabled, int securityVersion) {
+        this(userId, enabled, securityVersion, null, 0);
+    }
+
+    /**
+     * Создает сообщение об отзыве токена пользователя.
+     *
+     * @param userId           идентификатор пользователя.
+     * @param tokenId          идентификатор токена (jti).
+     * @param expirationMillis время истечения токена в миллисекундах с начала эпохи.
+     * @return сообщение об отзыве токена.
+     */
+    public static UserInvalidation tokenRevoked(Long userId, String tokenId, long expirationMillis) {
+        return new UserInvalidation(userId, false, 0, tokenId, expirationMillis);
+    }
+
+    /**
+     * Проверяет, требует ли сообщение полной очистки кэшей.
+     *
+     * @return true, если сообщение не относится к конкретному пользователю.
+     */
+    public boolean isAll() {
+        return userId == null;
+    }
+
+    /**
+     * Проверяет, является ли сообщение сообщением об отзыве токена.
+     *
+     * @return true, если сообщение содержит идентификатор отозванного токена.
+     */
+    public boolean isTokenRevocation() {
+        return tokenId != null;
+    }
+
+    /**
+     * Преобразует сообщение в строку для передачи через канал.
+     *
+     * @return строка вида {@code <id>,<enabled>,<security_version>} или {@code <id>,token,<jti>,<expiration_millis>}.
+     */
+    public String format() {
+        if (isTokenRevocation()) {
+            return userId + "," + TOKEN_REVOCATION + "," + tokenId + "," + tokenExpirationMillis;
+        }
+        return userId + "," + enabled + "," + securityVersion;
+    }
+
+    /**
+     * Разбирает сообщение, полученное из канала.
+     *
+     * @param payload строка вида {@code <id>,<enabled>,<security_version>} или {@code <id>,token,<jti>,<expiration_millis>}.
+     * @return разобранное сообщение.
+     * @throws IllegalArgumentException если строка не соответствует формату.
+     */
+    public static UserInvalidation parse(String payload) {
+        String[] parts = payload.split(",");
+        if (parts.length == 4 && TOKEN_REVOCATION.equals(parts[1])) {
+            return tokenRevoked(Long.valueOf(parts[0]), parts[2], Long.parseLong(parts[3]));
+        }
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Malformed user invalidation: " + payload);
+        }
+        return new UserInvalidation(Long.valueOf(parts[0]), Boolean.parseBoolean(parts[1]), Integer.parseInt(parts[2]));
+    }
+}
@@ -0,0 +1,144 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import com.amelinroman.webfluxsecurity.exception.ServiceOverloadedException;
+import com.amelinroman.webfluxsecurity.security.RevokedUserVersions;
+import com.amelinroman.webfluxsecurity.security.TokenDenylist;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+/**
+ * @author Amelin Roman
+ * Компонент UserInvalidationBus применяет сообщения об изменении пользователей, полученные от других
+ * экземпляров приложения: удаляет пользователя из локального кэша и обновляет набор отозванных версий.
+ * Благодаря этому отключение пользователя на одном экземпляре вступает в силу на всех экземплярах
+ * за время доставки сообщения, а не по истечении TTL кэша или интервала обновления.
+ * Через тот же канал рассылаются токены, отозванные при выходе из системы: каждый экземпляр добавляет их
+ * в свой TokenDenylist. Отзывы токенов не хранятся в базе данных, поэтому отзыв, сообщение о котором потеряно
+ * при разрыве соединения канала, действует только на экземплярах, получивших сообщение, до истечения срока токена.
+ * Количество примененных сообщений публикуется счетчиком user.invalidation.received с тегом scope.
+ */
+@Slf4j
+@Component
+public class UserInvalidationBus {
+
+    private final UserInvalidationTransport transport;
+    private final UserCache userCache;
+    private final RevokedUserVersions revokedUserVersions;
+    private final TokenDenylist tokenDenylist;
+    private final Counter userCounter;
+    private final Counter allCounter;
+    private final Counter tokenCounter;
+
+    private volatile Disposable subscription;
+
+    /**
+     * Конструктор класса UserInvalidationBus.
+     *
+     * @param transport           канал доставки сообщений.
+     * @param userCache           кэш пользователей.
+     * @param revokedUserVersions набор отозванных версий безопасности пользователей.
+     * @param tokenDenylist       список отозванных токенов.
+     * @param meterRegistry       реестр метрик.
+     */
+    public UserInvalidationBus(UserInvalidationTransport transport,
+                               UserCache userCache,
+                               RevokedUserVersions revokedUserVersions,
+                               TokenDenylist tokenDenylist,
+                               MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.userCache = userCache;
+        this.revokedUserVersions = revokedUserVersions;
+        this.tokenDenylist = tokenDenylist;
+        this.userCounter = counter(meterRegistry, "user");
+        this.allCounter = counter(meterRegistry, "all");
+        this.tokenCounter = counter(meterRegistry, "token");
+    }
+
+    /**
+     * Подписывается на сообщения при запуске приложения.
+     */
+    @PostConstruct
+    public void start() {
+        subscription = transport.subscribe()
+                .subscribe(this::apply, e -> log.error("IN start - user invalidation subscription terminated", e));
+    }
+
+    /**
+     * Отменяет подписку при остановке контекста приложения.
+     */
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * Рассылает сообщение об изменении пользователя всем экземплярам приложения.
+     *
+     * @param invalidation сообщение об изменении пользователя.
+     * @return Mono<Void>, завершающийся после отправки сообщения.
+     */
+    public Mono<Void> publish(UserInvalidation invalidation) {
+        return transport.publish(invalidation);
+    }
+
+    /**
+     * Отзывает токен на этом экземпляре приложения и рассылает сообщение об отзыве остальным экземплярам.
+     * Ошибка рассылки не отменяет отзыв на этом экземпляре и записывается в журнал.
+     *
+     * @param userId           идентификатор пользователя.
+     * @param tokenId          идентификатор токена (jti).
+     * @param expirationMillis время истечения токена в миллисекундах с начала эпохи.
+     * @return Mono<Void>, завершающийся после отзыва токена и отправки сообщения.
+     * @throws ServiceOverloadedException если количество отозванных токенов достигло предела.
+     */
+    public Mono<Void> revokeToken(Long userId, String tokenId, long expirationMillis) {
+        return Mono.fromRunnable(() -> tokenDenylist.revoke(tokenId, expirationMillis))
+                .then(publish(UserInvalidation.tokenRevoked(userId, tokenId, expirationMillis))
+                        .onErrorResume(e -> {
+                            log.error("IN revokeToken - failed to publish revocation of token {} of user {}", tokenId, userId, e);
+                            return Mono.empty();
+                        }));
+    }
+
+    /**
+     * Применяет сообщение к локальным кэшам.
+     *
+     * @param invalidation сообщение об изменении пользователя.
+     */
+    void apply(UserInvalidation invalidation) {
+        if (invalidation.isAll()) {
+            allCounter.increment();
+            userCache.invalidateAll();
+            revokedUserVersions.refresh();
+            return;
+        }
+        if (invalidation.isTokenRevocation()) {
+            tokenCounter.increment();
+            try {
+                tokenDenylist.revoke(invalidation.getTokenId(), invalidation.getTokenExpirationMillis());
+            } catch (ServiceOverloadedException e) {
+                log.error("IN apply - token {} of user {} not revoked: {}", invalidation.getTokenId(), invalidation.getUserId(), e.getMessage());
+            }
+            return;
+        }
+        userCounter.increment();
+        userCache.invalidate(invalidation.getUserId());
+        revokedUserVersions.update(invalidation.getUserId(), invalidation.isEnabled(), invalidation.getSecurityVersion());
+        log.debug("IN apply - user: {} invalidated", invalidation.getUserId());
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("user.invalidation.received")
+                .description("Количество примененных сообщений об изменении пользователей")
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * @author Amelin Roman
+ * Интерфейс UserInvalidationTransport описывает канал, через который экземпляры приложения узнают
+ * об изменениях пользователей, сделанных на других экземплярах.
+ * Реализация выбирается свойством user.invalidation.transport.
+ */
+public interface UserInvalidationTransport {
+
+    /**
+     * Подписывается на сообщения об изменении пользователей. Поток не завершается, пока подписка активна.
+     * После каждого (пере)подключения реализация, которая может терять сообщения, выдает {@link UserInvalidation#ALL}.
+     *
+     * @return Flux<UserInvalidation> с сообщениями об изменении пользователей.
+     */
+    Flux<UserInvalidation> subscribe();
+
+    /**
+     * Рассылает сообщение об изменении пользователя всем подписчикам, включая текущий экземпляр приложения.
+     *
+     * @param invalidation сообщение об изменении пользователя.
+     * @return Mono<Void>, завершающийся после отправки сообщения.
+     */
+    Mono<Void> publish(UserInvalidation invalidation);
+}
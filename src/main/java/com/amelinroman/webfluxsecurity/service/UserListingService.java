@@ -0,0 +1,76 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * @author Amelin Roman
+ * Класс-сервис UserListingService выдает список пользователей потоком.
+ * Пользователи читаются страницами с keyset-пагинацией по идентификатору (id > последнего прочитанного
+ * ORDER BY id LIMIT n) вместо OFFSET, поэтому стоимость чтения каждой страницы не растет с ее номером,
+ * а в памяти одновременно находится не больше пары страниц независимо от количества пользователей.
+ * Следующая страница запрашивается только тогда, когда подписчик готов принять данные.
+ */
+@Service
+public class UserListingService {
+
+    private final R2dbcEntityTemplate template;
+    private final int pageSize;
+
+    /**
+     * Конструктор класса UserListingService.
+     *
+     * @param template шаблон для выполнения запросов к таблице пользователей.
+     * @param pageSize количество пользователей, читаемых одним запросом.
+     */
+    public UserListingService(R2dbcEntityTemplate template,
+                              @Value("${user.listing.page-size}") int pageSize) {
+        this.template = template;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Возвращает пользователей, упорядоченных по идентификатору, начиная с идентификатора больше afterId.
+     *
+     * @param enabled фильтр по признаку активности пользователя или null, если фильтр не задан.
+     * @param role    фильтр по роли пользователя или null, если фильтр не задан.
+     * @param afterId идентификатор, после которого начинается выборка, или null для выборки с начала.
+     * @return Flux<UserEntity> с пользователями.
+     */
+    public Flux<UserEntity> findUsers(Boolean enabled, UserRole role, Long afterId) {
+        Criteria filter = Criteria.empty();
+        if (enabled != null) {
+            filter = filter.and("enabled").is(enabled);
+        }
+        if (role != null) {
+            filter = filter.and("role").is(role.name());
+        }
+        Criteria criteria = filter;
+
+        return findPage(criteria, afterId == null ? 0L : afterId)
+                .expand(page -> page.size() < pageSize
+                        ? Mono.empty()
+                        : findPage(criteria, page.get(page.size() - 1).getId()))
+                .flatMapIterable(Function.identity());
+    }
+
+    private Mono<List<UserEntity>> findPage(Criteria filter, long afterId) {
+        return template.select(UserEntity.class)
+                .matching(Query.query(filter.and("id").greaterThan(afterId))
+                        .sort(Sort.by("id"))
+                        .limit(pageSize))
+                .all()
+                .collectList();
+    }
+}
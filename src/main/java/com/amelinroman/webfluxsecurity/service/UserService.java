@@ -1,57 +1,158 @@
 package com.amelinroman.webfluxsecurity.service;
 
+import com.amelinroman.webfluxsecurity.entity.UserCredentials;
 import com.amelinroman.webfluxsecurity.entity.UserEntity;
 import com.amelinroman.webfluxsecurity.entity.UserRole;
 import com.amelinroman.webfluxsecurity.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.amelinroman.webfluxsecurity.security.ReactivePasswordEncoder;
+import com.amelinroman.webfluxsecurity.security.RevokedUserVersions;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.log4j.Log4j;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 /**
  * @author Amelin Roman
  * Класс-сервис UserService предоставляет методы для работы с пользователями, включая регистрацию и получение пользователей.
+ * Одновременные запросы одного и того же пользователя, например параллельные запросы клиента с одним токеном,
+ * объединяются в одну загрузку из базы данных с помощью SingleFlight.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final ReactivePasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final RevokedUserVersions revokedUserVersions;
+    private final SingleFlight<Long, UserEntity> userByIdFlight;
+    private final SingleFlight<Long, Boolean> enabledByIdFlight;
+    private final SingleFlight<String, UserEntity> userByUsernameFlight;
+    private final SingleFlight<String, UserCredentials> credentialsByUsernameFlight;
+
+    /**
+     * Конструктор класса UserService.
+     *
+     * @param userRepository      репозиторий пользователей.
+     * @param passwordEncoder     кодировщик паролей.
+     * @param userCache           кэш пользователей.
+     * @param revokedUserVersions набор отозванных версий безопасности пользователей.
+     * @param meterRegistry       реестр метрик для публикации количества объединенных запросов.
+     */
+    public UserService(UserRepository userRepository,
+                       ReactivePasswordEncoder passwordEncoder,
+                       UserCache userCache,
+                       RevokedUserVersions revokedUserVersions,
+                       MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
+        this.revokedUserVersions = revokedUserVersions;
+        this.userByIdFlight = new SingleFlight<>("user_by_id", meterRegistry);
+        this.enabledByIdFlight = new SingleFlight<>("enabled_by_id", meterRegistry);
+        this.userByUsernameFlight = new SingleFlight<>("user_by_username", meterRegistry);
+        this.credentialsByUsernameFlight = new SingleFlight<>("credentials_by_username", meterRegistry);
+    }
 
     /**
      * Регистрирует нового пользователя и сохраняет его в базу данных.
+     * Пароль кодируется на выделенном пуле хэширования, имя пользователя нормализуется.
      *
      * @param user объект UserEntity, содержащий информацию о пользователе.
      * @return Mono<UserEntity> объект созданного пользователя, сохраненного в базе данных.
      */
     public Mono<UserEntity> registerUser(UserEntity user) {
+        return passwordEncoder.encode(user.getPassword())
+                .flatMap(encodedPassword -> userRepository.save(
+                        user.toBuilder()
+                                .username(normalizeUsername(user.getUsername()))
+                                .password(encodedPassword)
+                                .role(UserRole.USER)
+                                .enabled(true)
+                                .createdAt(LocalDateTime.now())
+                                .updatedAt(LocalDateTime.now())
+                                .build()
+                )).doOnSuccess(u -> {
+            log.info("IN registerUser - user: {} created", u);
+        });
+    }
+
+    /**
+     * Обновляет данные пользователя и удаляет его из кэша.
+     *
+     * @param user объект UserEntity с измененными данными пользователя.
+     * @return Mono<UserEntity> объект обновленного пользователя.
+     */
+    public Mono<UserEntity> updateUser(UserEntity user) {
         return userRepository.save(
                 user.toBuilder()
-                        .password(passwordEncoder.encode(user.getPassword()))
-                        .role(UserRole.USER)
-                        .enabled(true)
-                        .createdAt(LocalDateTime.now())
                         .updatedAt(LocalDateTime.now())
                         .build()
         ).doOnSuccess(u -> {
-            log.info("IN registerUser - user: {} created", u);
+            userCache.invalidate(u.getId());
+            log.info("IN updateUser - user: {} updated", u);
         });
     }
 
+    /**
+     * Отключает пользователя и удаляет его из кэша, чтобы следующий запрос с его токеном был отклонен.
+     * Версия безопасности пользователя увеличивается, а его токены отзываются в наборе отозванных версий.
+     *
+     * @param id идентификатор пользователя.
+     * @return Mono<UserEntity> объект отключенного пользователя или Mono.empty(), если пользователь не найден.
+     */
+    public Mono<UserEntity> disableUser(Long id) {
+        return userRepository.findById(id)
+                .flatMap(user -> updateUser(user.toBuilder()
+                        .enabled(false)
+                        .securityVersion(user.getSecurityVersion() + 1)
+                        .build()))
+                .doOnSuccess(u -> {
+                    if (u != null) {
+                        revokedUserVersions.revokeAll(u.getId());
+                    }
+                });
+    }
+
+    /**
+     * Перекодирует пароль пользователя с текущими параметрами кодировщика после успешного входа.
+     * Пароль заменяется, только если он не был изменен с момента проверки.
+     *
+     * @param user        пользователь, пароль которого был успешно проверен.
+     * @param rawPassword некодированный пароль пользователя.
+     * @return Mono<Boolean> со значением true, если пароль заменен, иначе false.
+     */
+    public Mono<Boolean> upgradePassword(UserCredentials user, String rawPassword) {
+        return passwordEncoder.encode(rawPassword)
+                .flatMap(encodedPassword -> userRepository.replacePassword(user.getId(), user.getPassword(),
+                        encodedPassword, LocalDateTime.now()))
+                .map(updated -> {
+                    if (updated > 0) {
+                        userCache.invalidate(user.getId());
+                        log.info("IN upgradePassword - password of user: {} re-encoded", user.getId());
+                    }
+                    return updated > 0;
+                });
+    }
+
     /**
      * Возвращает пользовательскую сущность, найденную по идентификатору.
+     * Пользователь загружается из кэша, при промахе — из базы данных, одновременные загрузки объединяются.
      *
      * @param id идентификатор пользователя.
      * @return Mono<UserEntity> объект найденного пользователя или Mono.empty(), если пользователь не найден.
      */
     public Mono<UserEntity> getUserById(Long id) {
-        return userRepository.findById(id);
+        return userCache.getIfPresent(id)
+                .switchIfEmpty(userByIdFlight.execute(id, key -> {
+                    long stamp = userCache.stamp();
+                    return userRepository.findById(key)
+                            .doOnNext(user -> userCache.put(user, stamp));
+                }));
     }
 
     /**
@@ -61,6 +162,44 @@ public class UserService {
      * @return Mono<UserEntity> объект найденного пользователя или Mono.empty(), если пользователь не найден.
      */
     public Mono<UserEntity> getUserByUsername(String username) {
-        return userRepository.findByUsername(username);
+        return userByUsernameFlight.execute(normalizeUsername(username), userRepository::findByUsername);
+    }
+
+    /**
+     * Возвращает данные пользователя, необходимые для входа в систему, найденного по имени пользователя (username).
+     * Из базы данных читаются только идентификатор, имя, пароль, роль, признак активности и версия безопасности.
+     *
+     * @param username имя пользователя для поиска.
+     * @return Mono<UserCredentials> данные найденного пользователя или Mono.empty(), если пользователь не найден.
+     */
+    public Mono<UserCredentials> getUserCredentials(String username) {
+        return credentialsByUsernameFlight.execute(normalizeUsername(username), userRepository::findCredentialsByUsername);
+    }
+
+    /**
+     * Проверяет, активен ли пользователь. Признак берется из кэша, при промахе из базы данных
+     * читается только столбец enabled.
+     *
+     * @param id идентификатор пользователя.
+     * @return Mono<Boolean> признак активности пользователя или Mono.empty(), если пользователь не найден.
+     */
+    public Mono<Boolean> isUserEnabled(Long id) {
+        return userCache.getEnabledIfPresent(id)
+                .switchIfEmpty(enabledByIdFlight.execute(id, key -> {
+                    long stamp = userCache.stamp();
+                    return userRepository.findEnabledById(key)
+                            .doOnNext(enabled -> userCache.putEnabled(key, enabled, stamp));
+                }));
+    }
+
+    /**
+     * Нормализует имя пользователя: удаляет пробелы по краям и приводит к нижнему регистру,
+     * чтобы имена, различающиеся только регистром, считались одним именем.
+     *
+     * @param username имя пользователя.
+     * @return нормализованное имя пользователя или null, если имя не задано.
+     */
+    public static String normalizeUsername(String username) {
+        return username == null ? null : username.trim().toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,3 @@
+ALTER TABLE users ADD COLUMN security_version INTEGER NOT NULL DEFAULT 0;
+
+CREATE INDEX users_updated_at_idx ON users (updated_at);
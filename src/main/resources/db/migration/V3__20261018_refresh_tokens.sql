@@ -0,0 +1,14 @@
+CREATE TABLE refresh_tokens (
+                       id  BIGSERIAL PRIMARY KEY ,
+                       token_hash VARCHAR(64) NOT NULL UNIQUE ,
+                       family_id VARCHAR(36) NOT NULL ,
+                       user_id INTEGER NOT NULL REFERENCES users (id) ,
+                       rotated BOOLEAN NOT NULL DEFAULT FALSE,
+                       revoked BOOLEAN NOT NULL DEFAULT FALSE,
+                       expires_at TIMESTAMP NOT NULL ,
+                       created_at TIMESTAMP
+);
+
+CREATE INDEX refresh_tokens_family_id_idx ON refresh_tokens (family_id);
+
+CREATE INDEX refresh_tokens_expires_at_idx ON refresh_tokens (expires_at);
@@ -0,0 +1,10 @@
+CREATE TABLE signing_keys (
+                       id  BIGSERIAL PRIMARY KEY ,
+                       kid VARCHAR(64) NOT NULL UNIQUE ,
+                       algorithm VARCHAR(16) NOT NULL ,
+                       public_key VARCHAR(4096) NOT NULL ,
+                       private_key VARCHAR(4096) NOT NULL ,
+                       activates_at TIMESTAMP NOT NULL UNIQUE ,
+                       expires_at TIMESTAMP NOT NULL ,
+                       created_at TIMESTAMP
+);
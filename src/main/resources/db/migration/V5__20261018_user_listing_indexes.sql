@@ -0,0 +1,3 @@
+CREATE INDEX users_enabled_id_idx ON users (enabled, id);
+
+CREATE INDEX users_role_id_idx ON users (role, id);
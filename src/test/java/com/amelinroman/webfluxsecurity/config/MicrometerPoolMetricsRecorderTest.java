@@ -0,0 +1,82 @@
+package com.amelinroman.webfluxsecurity.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Amelin Roman
+ * Класс MicrometerPoolMetricsRecorderTest содержит тесты для класса MicrometerPoolMetricsRecorder,
+ * который публикует метрики пула соединений R2DBC. Тесты выполняются на пуле соединений с базой данных H2.
+ */
+public class MicrometerPoolMetricsRecorderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(
+                        "r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1"))
+                .name("test")
+                .initialSize(1)
+                .maxSize(2)
+                .metricsRecorder(new MicrometerPoolMetricsRecorder(meterRegistry, "test"))
+                .build());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.dispose();
+    }
+
+    /**
+     * Тест проверяет, что получение соединений из прогретого пула записывается в таймер r2dbc.pool.acquire
+     * только при создании соединения, а время простоя записывается при каждой выдаче свободного соединения.
+     */
+    @Test
+    public void testAcquireIsRecorded() {
+        StepVerifier.create(pool.warmup())
+                .expectNext(1)
+                .verifyComplete();
+
+        StepVerifier.create(acquireAndRelease().then(acquireAndRelease()))
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get("r2dbc.pool.acquire")
+                .tag("name", "test").tag("outcome", "success").timer().count());
+        assertEquals(0, meterRegistry.get("r2dbc.pool.acquire")
+                .tag("outcome", "failure").timer().count());
+        assertEquals(2, meterRegistry.get("r2dbc.pool.connection.idle").timer().count());
+    }
+
+    /**
+     * Тест проверяет, что закрытие пула записывает время жизни соединений.
+     */
+    @Test
+    public void testLifetimeIsRecordedOnDispose() {
+        StepVerifier.create(acquireAndRelease())
+                .verifyComplete();
+
+        StepVerifier.create(pool.disposeLater())
+                .verifyComplete();
+
+        assertEquals(1, meterRegistry.get("r2dbc.pool.connection.lifetime").timer().count());
+    }
+
+    private Mono<Void> acquireAndRelease() {
+        return Mono.usingWhen(pool.create(), connection -> Mono.empty(), Connection::close);
+    }
+}
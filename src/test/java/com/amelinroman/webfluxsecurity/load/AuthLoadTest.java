@@ -0,0 +1,216 @@
+package com.amelinroman.webfluxsecurity.load;
+
+import com.amelinroman.webfluxsecurity.dto.AuthRequestDto;
+import com.amelinroman.webfluxsecurity.dto.AuthResponseDto;
+import com.amelinroman.webfluxsecurity.dto.RefreshRequestDto;
+import com.amelinroman.webfluxsecurity.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Amelin Roman
+ * Класс AuthLoadTest нагружает эндпоинты /register, /login, /refresh и /info приложения, запущенного
+ * на встроенной базе данных H2, с заданным уровнем параллелизма. Для каждого эндпоинта
+ * строится гистограмма задержек (p50/p99/p999) и вычисляется пропускная способность,
+ * результаты сохраняются в JSON-файл для сравнения сборок.
+ * Тест помечен тегом load и запускается только в профиле Maven loadtest.
+ */
+@Slf4j
+@Tag("load")
+@ActiveProfiles("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class AuthLoadTest {
+
+    private static final String BASE_PATH = "/api/v1/auth";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${loadtest.concurrency}")
+    private int concurrency;
+
+    @Value("${loadtest.requests}")
+    private int requests;
+
+    @Value("${loadtest.output}")
+    private String output;
+
+    /**
+     * Последовательно нагружает /register, /login, /refresh и /info и сохраняет результаты.
+     * Каждый этап использует пользователей и токены, созданные на предыдущем этапе.
+     */
+    @Test
+    public void testAuthEndpointsUnderLoad() throws IOException {
+        WebClient client = WebClient.create("http://localhost:" + port + BASE_PATH);
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        EndpointStats register = run("register", i -> client.post()
+                .uri("/register")
+                .bodyValue(user(runId, i))
+                .retrieve()
+                .bodyToMono(UserDto.class));
+
+        AuthResponseDto[] tokens = new AuthResponseDto[requests];
+        EndpointStats login = run("login", i -> client.post()
+                .uri("/login")
+                .bodyValue(credentials(runId, i))
+                .retrieve()
+                .bodyToMono(AuthResponseDto.class)
+                .doOnNext(response -> tokens[i] = response));
+
+        EndpointStats refresh = run("refresh", i -> client.post()
+                .uri("/refresh")
+                .bodyValue(refreshRequest(tokens[i].getRefreshToken()))
+                .retrieve()
+                .bodyToMono(AuthResponseDto.class));
+
+        EndpointStats info = run("info", i -> client.get()
+                .uri("/info")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokens[i].getToken())
+                .retrieve()
+                .bodyToMono(UserDto.class));
+
+        writeResults(List.of(register, login, refresh, info));
+
+        assertEquals(0, register.errors.get());
+        assertEquals(0, login.errors.get());
+        assertEquals(0, refresh.errors.get());
+        assertEquals(0, info.errors.get());
+    }
+
+    /**
+     * Выполняет заданное количество запросов к эндпоинту, ограничивая число одновременных запросов.
+     *
+     * @param endpoint имя эндпоинта для отчета.
+     * @param request  функция, создающая i-й запрос.
+     * @return статистика задержек и ошибок по эндпоинту.
+     */
+    private EndpointStats run(String endpoint, IntFunction<Mono<?>> request) {
+        EndpointStats stats = new EndpointStats(endpoint);
+        long startedAt = System.nanoTime();
+
+        Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    long requestStartedAt = System.nanoTime();
+                    return request.apply(i)
+                            .doOnSuccess(r -> stats.latency.recordValue(toMicros(System.nanoTime() - requestStartedAt)))
+                            .doOnError(e -> stats.errors.incrementAndGet())
+                            .onErrorResume(e -> Mono.empty());
+                }), concurrency)
+                .blockLast();
+
+        stats.elapsedNanos = System.nanoTime() - startedAt;
+        log.info("IN run - {}: {}", endpoint, stats.toMap());
+        return stats;
+    }
+
+    private void writeResults(List<EndpointStats> results) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", Instant.now().toString());
+        report.put("concurrency", concurrency);
+        report.put("requests", requests);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        results.forEach(stats -> endpoints.put(stats.endpoint, stats.toMap()));
+        report.put("endpoints", endpoints);
+
+        File file = new File(output);
+        file.getParentFile().mkdirs();
+        objectMapper.copy()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file, report);
+        log.info("IN writeResults - results written to {}", file.getAbsolutePath());
+    }
+
+    /**
+     * Формирует тело запроса регистрации. UserDto не используется, так как его пароль
+     * доступен только для чтения из запроса и не сериализуется.
+     */
+    private static Map<String, String> user(String runId, int i) {
+        return Map.of(
+                "username", username(runId, i),
+                "password", "password" + i,
+                "first_name", "Load",
+                "last_name", "Test");
+    }
+
+    private static AuthRequestDto credentials(String runId, int i) {
+        AuthRequestDto credentials = new AuthRequestDto();
+        credentials.setUsername(username(runId, i));
+        credentials.setPassword("password" + i);
+        return credentials;
+    }
+
+    private static RefreshRequestDto refreshRequest(String refreshToken) {
+        RefreshRequestDto request = new RefreshRequestDto();
+        request.setRefreshToken(refreshToken);
+        return request;
+    }
+
+    private static String username(String runId, int i) {
+        return "load_" + runId + "_" + i;
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    /**
+     * Статистика нагрузки на один эндпоинт: гистограмма задержек в микросекундах,
+     * количество ошибок и общее время выполнения этапа.
+     */
+    private static class EndpointStats {
+        private final String endpoint;
+        private final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final AtomicLong errors = new AtomicLong();
+        private long elapsedNanos;
+
+        EndpointStats(String endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", latency.getTotalCount());
+            map.put("errors", errors.get());
+            map.put("throughput_per_second", latency.getTotalCount() * 1e9 / elapsedNanos);
+            map.put("p50_ms", percentile(50.0));
+            map.put("p99_ms", percentile(99.0));
+            map.put("p999_ms", percentile(99.9));
+            map.put("max_ms", latency.getMaxValue() / 1000.0);
+            return map;
+        }
+
+        private double percentile(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
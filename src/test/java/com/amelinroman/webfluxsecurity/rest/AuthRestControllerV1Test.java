@@ -2,22 +2,35 @@ package com.amelinroman.webfluxsecurity.rest;
 
 import com.amelinroman.webfluxsecurity.dto.AuthRequestDto;
 import com.amelinroman.webfluxsecurity.dto.AuthResponseDto;
+import com.amelinroman.webfluxsecurity.dto.RefreshRequestDto;
 import com.amelinroman.webfluxsecurity.dto.UserDto;
 import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
 import com.amelinroman.webfluxsecurity.mapper.UserMapper;
+import com.amelinroman.webfluxsecurity.security.AuthMetrics;
 import com.amelinroman.webfluxsecurity.security.CustomPrincipal;
 import com.amelinroman.webfluxsecurity.security.SecurityService;
+import com.amelinroman.webfluxsecurity.security.TokenClaims;
 import com.amelinroman.webfluxsecurity.security.TokenDetails;
+import com.amelinroman.webfluxsecurity.service.RefreshTokenService;
+import com.amelinroman.webfluxsecurity.service.UserInvalidationBus;
 import com.amelinroman.webfluxsecurity.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,6 +49,15 @@ public class AuthRestControllerV1Test {
     @Mock
     private UserMapper mapper;
 
+    @Mock
+    private UserInvalidationBus userInvalidationBus;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Spy
+    private AuthMetrics authMetrics = new AuthMetrics(new SimpleMeterRegistry());
+
     @InjectMocks
     private AuthRestControllerV1 authRestControllerV1;
 
@@ -93,30 +115,122 @@ public class AuthRestControllerV1Test {
         verify(securityService, times(1)).authenticate(authRequestDto.getUsername(), authRequestDto.getPassword());
     }
 
+    /**
+     * Тест проверяет работу метода logout класса AuthRestControllerV1.
+     * Выход из системы должен отзывать токен, с которым выполнен запрос, на всех экземплярах приложения,
+     * и семейство переданного refresh-токена.
+     */
+    @Test
+    public void testLogout() {
+        Authentication authentication = mock(Authentication.class);
+        TokenClaims claims = new TokenClaims(1L, UserRole.USER, "test1", 1_700_000_000L, 0, "jti");
+
+        RefreshRequestDto refreshRequestDto = new RefreshRequestDto();
+        refreshRequestDto.setRefreshToken("refresh");
+
+        when(authentication.getDetails()).thenReturn(claims);
+        when(userInvalidationBus.revokeToken(1L, "jti", 1_700_000_000_000L)).thenReturn(Mono.empty());
+        when(refreshTokenService.revoke("refresh", 1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(authRestControllerV1.logout(authentication, refreshRequestDto))
+                .verifyComplete();
+
+        verify(userInvalidationBus, times(1)).revokeToken(1L, "jti", 1_700_000_000_000L);
+        verify(refreshTokenService, times(1)).revoke("refresh", 1L);
+    }
+
+    /**
+     * Тест проверяет работу метода refresh класса AuthRestControllerV1.
+     * Обновление сессии должно возвращать новые JWT-токен и refresh-токен.
+     */
+    @Test
+    public void testRefresh() {
+        RefreshRequestDto refreshRequestDto = new RefreshRequestDto();
+        refreshRequestDto.setRefreshToken("refresh");
+        TokenDetails tokenDetails = TokenDetails.builder()
+                .userId(1L)
+                .token("token")
+                .refreshToken("next-refresh")
+                .build();
+
+        when(securityService.refresh("refresh")).thenReturn(Mono.just(tokenDetails));
+
+        StepVerifier.create(authRestControllerV1.refresh(refreshRequestDto))
+                .expectNextMatches(response -> response.getUserId() == 1L
+                        && "token".equals(response.getToken())
+                        && "next-refresh".equals(response.getRefreshToken()))
+                .verifyComplete();
+    }
+
     /**
      * Тест проверяет работу метода getUserInfo класса AuthRestControllerV1.
      * Корректный запрос информации о пользователе должен вызывать метод userService
-     * для получения информации об пользователе и возвращать соответствующий объект UserDto.
+     * для получения информации об пользователе и возвращать соответствующий объект UserDto с ETag.
      */
     @Test
     public void testGetUserInfo() {
         Authentication authentication = mock(Authentication.class);
         CustomPrincipal customPrincipal = mock(CustomPrincipal.class);
         UserDto userDto = new UserDto();
-        UserEntity userEntity = new UserEntity();
+        UserEntity userEntity = UserEntity.builder()
+                .id(1L)
+                .updatedAt(LocalDateTime.of(2026, 10, 18, 12, 0))
+                .build();
 
         when(authentication.getPrincipal()).thenReturn(customPrincipal);
         when(customPrincipal.getId()).thenReturn(1L);
         when(userService.getUserById(1L)).thenReturn(Mono.just(userEntity));
         when(mapper.map(userEntity)).thenReturn(userDto);
 
-        Mono<UserDto> response = authRestControllerV1.getUserInfo(authentication);
+        Mono<ResponseEntity<UserDto>> response = authRestControllerV1.getUserInfo(authentication, null);
 
         StepVerifier.create(response)
-                .expectNext(userDto)
+                .expectNextMatches(entity -> entity.getStatusCode() == HttpStatus.OK
+                        && entity.getBody() == userDto
+                        && AuthRestControllerV1.eTag(userEntity).equals(entity.getHeaders().getETag()))
                 .verifyComplete();
 
         verify(userService, times(1)).getUserById(1L);
         verify(mapper, times(1)).map(userEntity);
     }
+
+    /**
+     * Тест проверяет, что при совпадении If-None-Match с текущим ETag метод getUserInfo
+     * возвращает ответ 304 без тела и не преобразует пользователя в UserDto,
+     * а после изменения пользователя снова возвращает тело с новым ETag.
+     */
+    @Test
+    public void testGetUserInfoNotModified() {
+        Authentication authentication = mock(Authentication.class);
+        CustomPrincipal customPrincipal = mock(CustomPrincipal.class);
+        UserEntity userEntity = UserEntity.builder()
+                .id(1L)
+                .updatedAt(LocalDateTime.of(2026, 10, 18, 12, 0))
+                .build();
+        UserEntity updatedUserEntity = userEntity.toBuilder()
+                .updatedAt(userEntity.getUpdatedAt().plusNanos(1000))
+                .build();
+        String eTag = AuthRestControllerV1.eTag(userEntity);
+
+        when(authentication.getPrincipal()).thenReturn(customPrincipal);
+        when(customPrincipal.getId()).thenReturn(1L);
+        when(userService.getUserById(1L))
+                .thenReturn(Mono.just(userEntity))
+                .thenReturn(Mono.just(updatedUserEntity));
+        when(mapper.map(updatedUserEntity)).thenReturn(new UserDto());
+
+        StepVerifier.create(authRestControllerV1.getUserInfo(authentication, "\"other\", W/" + eTag))
+                .expectNextMatches(entity -> entity.getStatusCode() == HttpStatus.NOT_MODIFIED
+                        && entity.getBody() == null
+                        && eTag.equals(entity.getHeaders().getETag()))
+                .verifyComplete();
+
+        verify(mapper, never()).map(any(UserEntity.class));
+
+        StepVerifier.create(authRestControllerV1.getUserInfo(authentication, eTag))
+                .expectNextMatches(entity -> entity.getStatusCode() == HttpStatus.OK
+                        && entity.getBody() != null
+                        && !eTag.equals(entity.getHeaders().getETag()))
+                .verifyComplete();
+    }
 }
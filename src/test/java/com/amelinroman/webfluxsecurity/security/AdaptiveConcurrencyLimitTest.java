@@ -0,0 +1,95 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Amelin Roman
+ * Класс AdaptiveConcurrencyLimitTest содержит тесты для класса AdaptiveConcurrencyLimit,
+ * который ограничивает количество одновременно выполняемых запросов.
+ */
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(1000);
+
+    /**
+     * Тест проверяет, что запросы сверх предела отклоняются, пока не освободится место.
+     */
+    @Test
+    public void testRejectsAboveLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, 100);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(2, limit.getInFlight());
+
+        limit.release();
+        assertTrue(limit.tryAcquire());
+    }
+
+    /**
+     * Тест проверяет, что быстрые запросы при полной загрузке увеличивают предел на единицу, но не выше максимума,
+     * а при низкой загрузке предел не меняется.
+     */
+    @Test
+    public void testAdditiveIncrease() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 3, 100);
+
+        limit.tryAcquire();
+        limit.tryAcquire();
+        limit.release(FAST, false);
+        assertEquals(3, limit.getLimit());
+
+        limit.tryAcquire();
+        limit.tryAcquire();
+        limit.release(FAST, false);
+        assertEquals(3, limit.getLimit());
+
+        limit.release(FAST, false);
+        limit.release(FAST, false);
+        limit.tryAcquire();
+        limit.release(FAST, false);
+        assertEquals(3, limit.getLimit());
+    }
+
+    /**
+     * Тест проверяет, что медленные и отклоненные из-за перегрузки запросы уменьшают предел, но не ниже минимума.
+     */
+    @Test
+    public void testMultiplicativeDecrease() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 10, 20, 100);
+
+        limit.tryAcquire();
+        limit.release(SLOW, false);
+        assertEquals(18, limit.getLimit());
+
+        limit.tryAcquire();
+        limit.release(FAST, true);
+        assertEquals(16, limit.getLimit());
+
+        for (int i = 0; i < 20; i++) {
+            limit.tryAcquire();
+            limit.release(SLOW, false);
+        }
+        assertEquals(10, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    /**
+     * Тест проверяет, что недопустимые пределы отклоняются.
+     */
+    @Test
+    public void testRejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(1, 0, 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(1, 2, 3, 100));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimit(4, 2, 3, 100));
+    }
+}
@@ -0,0 +1,89 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Amelin Roman
+ * Класс ConcurrencyLimitWebFilterTest содержит тесты для класса ConcurrencyLimitWebFilter,
+ * который ограничивает количество одновременно выполняемых запросов по классам маршрутов.
+ */
+public class ConcurrencyLimitWebFilterTest {
+
+    private final ConcurrencyLimitWebFilter filter = new ConcurrencyLimitWebFilter(
+            new String[]{"/actuator/**", "/api/v1/admin/users"}, 1, environment(), new SimpleMeterRegistry());
+
+    /**
+     * Тест проверяет, что варианты пути входа с закодированными символами или matrix-параметрами
+     * относятся к классу auth и отклоняются, когда его предел занят.
+     */
+    @Test
+    public void testClassifiesNonNormalizedAuthPaths() {
+        Disposable inFlight = hold("/api/v1/auth/login");
+        try {
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, filter("/api/v1/auth/log%69n"));
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, filter("/api/v1/auth/register;x=1"));
+            assertNull(filter("/api/v1/auth/info"));
+        } finally {
+            inFlight.dispose();
+        }
+        assertNull(filter("/api/v1/auth/log%69n"));
+    }
+
+    /**
+     * Тест проверяет, что массовая регистрация ограничивается своим классом маршрутов,
+     * а исключенные маршруты не ограничиваются.
+     */
+    @Test
+    public void testLimitsImportAndSkipsExcludedPaths() {
+        Disposable inFlight = hold("/api/v1/admin/users/import");
+        try {
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, filter("/api/v1/admin/users/%69mport"));
+            assertNull(filter("/api/v1/admin/users"));
+            assertNull(filter("/actuator/health/readiness"));
+            assertNull(filter("/api/v1/auth/login"));
+        } finally {
+            inFlight.dispose();
+        }
+    }
+
+    private Disposable hold(String path) {
+        return filter.filter(exchange(path), exchange -> Mono.never()).subscribe();
+    }
+
+    private HttpStatus filter(String path) {
+        MockServerWebExchange exchange = exchange(path);
+        filter.filter(exchange, e -> Mono.empty()).block();
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+
+    private static MockServerWebExchange exchange(String path) {
+        return MockServerWebExchange.from(MockServerHttpRequest.method(HttpMethod.POST, URI.create(path)));
+    }
+
+    private static MockEnvironment environment() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("concurrency.auth.paths", "/api/v1/auth/login,/api/v1/auth/register")
+                .withProperty("concurrency.import.paths", "/api/v1/admin/users/import");
+        for (String routeClass : new String[]{"auth", "import", "default"}) {
+            int limit = routeClass.equals("default") ? 16 : 1;
+            environment.withProperty("concurrency." + routeClass + ".initial-limit", Integer.toString(limit))
+                    .withProperty("concurrency." + routeClass + ".min-limit", Integer.toString(limit))
+                    .withProperty("concurrency." + routeClass + ".max-limit", Integer.toString(limit))
+                    .withProperty("concurrency." + routeClass + ".latency-threshold", "1000");
+        }
+        return environment;
+    }
+}
@@ -0,0 +1,224 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.SigningKeyEntity;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import com.amelinroman.webfluxsecurity.exception.UnauthorizedException;
+import com.amelinroman.webfluxsecurity.repository.SigningKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Amelin Roman
+ * Класс JwtHandlerTest содержит тесты для класса JwtHandler,
+ * который проверяет JWT-токены.
+ */
+public class JwtHandlerTest {
+
+    private static final String SECRET = "b5f59337a612a2a7dc07328f3e7d1a04722967c7f06df20a499a7d3f91ff2a7e";
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private TokenDenylist tokenDenylist;
+    private JwtHandler jwtHandler;
+
+    /**
+     * Перед запуском каждого тестового метода создает JwtHandler с пустым кэшем проверенных токенов
+     * и пустым списком отозванных токенов.
+     */
+    @BeforeEach
+    public void setUp() {
+        verifiedTokenCache = new VerifiedTokenCache(100);
+        tokenDenylist = new TokenDenylist(3600, 10, 100, new SimpleMeterRegistry());
+        jwtHandler = new JwtHandler(new JwtVerifier(SECRET, null, true), verifiedTokenCache, tokenDenylist);
+    }
+
+    /**
+     * Создает хранилище с одним ключом подписи указанного алгоритма.
+     * Репозиторий заменен моком, который хранит сохраненные ключи в памяти.
+     */
+    private static SigningKeyStore signingKeyStore(SigningAlgorithm algorithm) {
+        List<SigningKeyEntity> keys = new ArrayList<>();
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.save(any(SigningKeyEntity.class))).thenAnswer(invocation -> {
+            keys.add(invocation.getArgument(0));
+            return Mono.just(invocation.getArgument(0));
+        });
+        when(repository.findAllByExpiresAtAfter(any(LocalDateTime.class))).thenAnswer(invocation -> Flux.fromIterable(keys));
+        when(repository.deleteExpired(any(LocalDateTime.class))).thenReturn(Mono.just(0));
+
+        SigningKeyStore signingKeyStore = new SigningKeyStore(repository, algorithm.name(), 86400, 900, 3600, "key-encryption-secret");
+        signingKeyStore.reload(LocalDateTime.now()).block();
+        return signingKeyStore;
+    }
+
+    private static String signedToken(SigningKey key, String algorithm, String kid) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long expiration = System.currentTimeMillis() / 1000 + 60;
+        String header = "{\"alg\":\"" + algorithm + "\",\"kid\":\"" + kid + "\"}";
+        String payload = "{\"sub\":\"2\",\"role\":\"USER\",\"username\":\"test1\",\"jti\":\"jti\",\"exp\":" + expiration + "}";
+        String signingInput = encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return signingInput + "." + encoder.encodeToString(key.sign(signingInput.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static String token(String secret, Date expiration) {
+        return Jwts.builder()
+                .setClaims(new HashMap<>(Map.of("role", "USER", "username", "test1")))
+                .setIssuer("proselyte")
+                .setSubject("2")
+                .setIssuedAt(new Date())
+                .setId("jti")
+                .setExpiration(expiration)
+                .signWith(SignatureAlgorithm.HS256, Base64.getEncoder().encodeToString(secret.getBytes()))
+                .compact();
+    }
+
+    /**
+     * Тест проверяет, что повторная проверка того же токена обслуживается из кэша.
+     */
+    @Test
+    public void testCheckUsesCache() {
+        String token = token(SECRET, new Date(System.currentTimeMillis() + 60_000));
+
+        StepVerifier.create(jwtHandler.check(token))
+                .expectNextMatches(result -> result.claims.getUserId() == 2L)
+                .verifyComplete();
+        StepVerifier.create(jwtHandler.check(token))
+                .expectNextMatches(result -> result.claims.getUserId() == 2L)
+                .verifyComplete();
+
+        assertEquals(1, verifiedTokenCache.stats().hitCount());
+    }
+
+    /**
+     * Тест проверяет, что из токена, выпущенного jjwt, извлекаются используемые приложением Claims.
+     */
+    @Test
+    public void testCheckParsesClaims() {
+        long expiration = System.currentTimeMillis() / 1000 * 1000 + 60_000;
+        String token = token(SECRET, new Date(expiration));
+
+        StepVerifier.create(jwtHandler.check(token))
+                .expectNextMatches(result -> result.claims.getRole() == UserRole.USER
+                        && "test1".equals(result.claims.getUsername())
+                        && result.claims.getExpirationMillis() == expiration
+                        && "jti".equals(result.claims.getTokenId())
+                        && token.equals(result.token))
+                .verifyComplete();
+    }
+
+    /**
+     * Тест проверяет, что токен неверного формата отклоняется.
+     */
+    @Test
+    public void testCheckRejectsMalformedToken() {
+        StepVerifier.create(jwtHandler.check("not-a-token"))
+                .expectError(UnauthorizedException.class)
+                .verify();
+        StepVerifier.create(jwtHandler.check("e30.e30.e30.e30"))
+                .expectError(UnauthorizedException.class)
+                .verify();
+    }
+
+    /**
+     * Тест проверяет, что токен с неверной подписью отклоняется и не попадает в кэш.
+     */
+    @Test
+    public void testCheckRejectsBadSignature() {
+        String token = token(SECRET.replace('b', 'c'), new Date(System.currentTimeMillis() + 60_000));
+
+        StepVerifier.create(jwtHandler.check(token))
+                .expectError(UnauthorizedException.class)
+                .verify();
+        assertEquals(0, verifiedTokenCache.stats().loadSuccessCount());
+    }
+
+    /**
+     * Тест проверяет, что истекший токен отклоняется.
+     */
+    @Test
+    public void testCheckRejectsExpiredToken() {
+        String token = token(SECRET, new Date(System.currentTimeMillis() - 60_000));
+
+        StepVerifier.create(jwtHandler.check(token))
+                .expectError(UnauthorizedException.class)
+                .verify();
+    }
+
+    /**
+     * Тест проверяет, что отозванный токен отклоняется, даже если его проверка уже закэширована.
+     */
+    @Test
+    public void testCheckRejectsRevokedToken() {
+        long expiration = System.currentTimeMillis() + 60_000;
+        String token = token(SECRET, new Date(expiration));
+
+        StepVerifier.create(jwtHandler.check(token))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        tokenDenylist.revoke("jti", expiration);
+
+        StepVerifier.create(jwtHandler.check(token))
+                .expectErrorMatches(e -> e instanceof UnauthorizedException
+                        && "PROSELYTE_TOKEN_REVOKED".equals(((UnauthorizedException) e).getErrorCode()))
+                .verify();
+    }
+
+    /**
+     * Тест проверяет, что токен, подписанный асимметричным ключом, проверяется открытым ключом, найденным по kid.
+     */
+    @ParameterizedTest
+    @EnumSource(SigningAlgorithm.class)
+    public void testCheckAcceptsAsymmetricSignature(SigningAlgorithm algorithm) {
+        SigningKeyStore signingKeyStore = signingKeyStore(algorithm);
+        SigningKey key = signingKeyStore.activeKey();
+        JwtHandler handler = new JwtHandler(new JwtVerifier(SECRET, signingKeyStore, true), verifiedTokenCache, tokenDenylist);
+
+        StepVerifier.create(handler.check(signedToken(key, algorithm.name(), key.getKid())))
+                .expectNextMatches(result -> result.claims.getUserId() == 2L)
+                .verifyComplete();
+    }
+
+    /**
+     * Тест проверяет, что токен с неизвестным kid или подмененным алгоритмом отклоняется,
+     * а токен HS256 отклоняется, если такие токены больше не принимаются.
+     */
+    @Test
+    public void testCheckRejectsUnknownKeyAndDisabledHs256() {
+        SigningKeyStore signingKeyStore = signingKeyStore(SigningAlgorithm.ES256);
+        SigningKey key = signingKeyStore.activeKey();
+        JwtHandler handler = new JwtHandler(new JwtVerifier(SECRET, signingKeyStore, false), verifiedTokenCache, tokenDenylist);
+
+        StepVerifier.create(handler.check(signedToken(key, "ES256", "unknown")))
+                .expectError(UnauthorizedException.class)
+                .verify();
+        StepVerifier.create(handler.check(signedToken(key, "RS256", key.getKid())))
+                .expectError(UnauthorizedException.class)
+                .verify();
+        StepVerifier.create(handler.check(token(SECRET, new Date(System.currentTimeMillis() + 60_000))))
+                .expectError(UnauthorizedException.class)
+                .verify();
+    }
+}
@@ -0,0 +1,60 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Amelin Roman
+ * Класс LoginThrottleWebFilterTest содержит тесты для класса LoginThrottleWebFilter,
+ * который ограничивает частоту запросов входа по адресу клиента.
+ */
+public class LoginThrottleWebFilterTest {
+
+    private final LoginThrottleWebFilter filter = new LoginThrottleWebFilter(new LoginThrottle(5, 5, 1, 1, 100, 60));
+
+    /**
+     * Тест проверяет, что варианты пути входа с закодированными символами или matrix-параметрами
+     * расходуют ту же попытку адреса, что и обычный путь, и отклоняются после ее исчерпания.
+     */
+    @Test
+    public void testThrottlesNonNormalizedLoginPaths() {
+        AtomicInteger passed = new AtomicInteger();
+
+        assertNull(filter("/api/v1/auth/login", passed));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, filter("/api/v1/auth/log%69n", passed));
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, filter("/api/v1/auth/login;x=1", passed));
+        assertEquals(1, passed.get());
+    }
+
+    /**
+     * Тест проверяет, что другие маршруты не расходуют попытки адреса.
+     */
+    @Test
+    public void testIgnoresOtherRoutes() {
+        AtomicInteger passed = new AtomicInteger();
+
+        assertNull(filter("/api/v1/auth/register", passed));
+        assertNull(filter("/api/v1/auth/login/other", passed));
+        assertNull(filter("/api/v1/auth/login", passed));
+        assertEquals(3, passed.get());
+    }
+
+    private HttpStatus filter(String path, AtomicInteger passed) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest
+                .method(HttpMethod.POST, URI.create(path))
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 50000)));
+        filter.filter(exchange, e -> Mono.fromRunnable(passed::incrementAndGet)).block();
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+}
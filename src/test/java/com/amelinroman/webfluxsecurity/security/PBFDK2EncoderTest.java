@@ -0,0 +1,79 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Amelin Roman
+ * Класс PBFDK2EncoderTest содержит тесты для класса PBFDK2Encoder,
+ * который кодирует пароли в версионированном формате со случайной солью.
+ */
+public class PBFDK2EncoderTest {
+
+    private static final String SECRET = "secret";
+
+    private final PBFDK2Encoder encoder = new PBFDK2Encoder(SECRET, 64, 256, 0, 1000);
+
+    /**
+     * Тест проверяет, что пароль кодируется в самоописывающем формате со случайной солью и проверяется.
+     */
+    @Test
+    public void testEncodeAndMatch() {
+        String first = encoder.encode("password");
+        String second = encoder.encode("password");
+
+        assertTrue(first.startsWith("$pbkdf2-sha512$i=1000,l=256$"));
+        assertNotEquals(first, second);
+        assertTrue(encoder.matches("password", first));
+        assertTrue(encoder.matches("password", second));
+        assertFalse(encoder.matches("wrong", first));
+        assertFalse(encoder.upgradeEncoding(first));
+    }
+
+    /**
+     * Тест проверяет, что пароль в прежнем формате проверяется и отмечается для перекодирования.
+     */
+    @Test
+    public void testLegacyPassword() throws Exception {
+        byte[] hash = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA512")
+                .generateSecret(new PBEKeySpec("password".toCharArray(), SECRET.getBytes(), 64, 256))
+                .getEncoded();
+        String legacy = Base64.getEncoder().encodeToString(hash);
+
+        assertTrue(encoder.matches("password", legacy));
+        assertFalse(encoder.matches("wrong", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+    }
+
+    /**
+     * Тест проверяет, что хэш с меньшим количеством итераций проверяется по своим параметрам
+     * и отмечается для перекодирования, а поврежденный хэш не совпадает ни с одним паролем.
+     */
+    @Test
+    public void testOutdatedAndMalformedPassword() {
+        PBFDK2Encoder stronger = new PBFDK2Encoder(SECRET, 64, 256, 0, 2000);
+        String outdated = encoder.encode("password");
+
+        assertTrue(stronger.matches("password", outdated));
+        assertTrue(stronger.upgradeEncoding(outdated));
+        assertFalse(encoder.upgradeEncoding(stronger.encode("password")));
+
+        assertFalse(encoder.matches("password", "$pbkdf2-sha512$i=1000$broken"));
+        assertFalse(encoder.matches("password", "$pbkdf2-sha512$i=x,l=256$AAAA$AAAA"));
+    }
+
+    /**
+     * Тест проверяет, что при подборе количество итераций не опускается ниже минимального.
+     */
+    @Test
+    public void testCalibrationRespectsMinimum() {
+        assertTrue(new PBFDK2Encoder(SECRET, 64, 256, 1, 5000).getIterations() >= 5000);
+    }
+}
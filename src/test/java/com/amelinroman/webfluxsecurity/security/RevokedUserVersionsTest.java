@@ -0,0 +1,100 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Amelin Roman
+ * Класс RevokedUserVersionsTest содержит тесты для класса RevokedUserVersions,
+ * который хранит отозванные версии безопасности пользователей.
+ */
+public class RevokedUserVersionsTest {
+
+    private UserRepository userRepository;
+    private RevokedUserVersions revokedUserVersions;
+
+    /**
+     * Перед запуском каждого тестового метода создает набор отозванных версий с моком репозитория.
+     */
+    @BeforeEach
+    public void setUp() {
+        userRepository = mock(UserRepository.class);
+        revokedUserVersions = new RevokedUserVersions(userRepository, true, 3600, 30);
+    }
+
+    /**
+     * Тест проверяет, что после обновления из базы данных отклоняются токены отключенных пользователей
+     * и токены с устаревшей версией безопасности.
+     */
+    @Test
+    public void testReload() {
+        when(userRepository.findAllByUpdatedAtAfter(any(LocalDateTime.class))).thenReturn(Flux.just(
+                UserEntity.builder().id(1L).enabled(false).securityVersion(1).build(),
+                UserEntity.builder().id(2L).enabled(true).securityVersion(2).build(),
+                UserEntity.builder().id(3L).enabled(true).build()));
+
+        StepVerifier.create(revokedUserVersions.reload())
+                .verifyComplete();
+
+        assertTrue(revokedUserVersions.isRevoked(1L, 1));
+        assertTrue(revokedUserVersions.isRevoked(2L, 1));
+        assertFalse(revokedUserVersions.isRevoked(2L, 2));
+        assertFalse(revokedUserVersions.isRevoked(3L, 0));
+        assertFalse(revokedUserVersions.isRevoked(4L, 0));
+    }
+
+    /**
+     * Тест проверяет, что отключение пользователя на этом экземпляре учитывается до обновления.
+     */
+    @Test
+    public void testRevokeAll() {
+        assertFalse(revokedUserVersions.isRevoked(1L, 0));
+
+        revokedUserVersions.revokeAll(1L);
+
+        assertTrue(revokedUserVersions.isRevoked(1L, 0));
+    }
+
+    /**
+     * Тест проверяет, что отзыв, выполненный во время обновления, не перезаписывается загруженным снимком,
+     * а при следующем обновлении набор снова определяется базой данных.
+     */
+    @Test
+    public void testRevokeAllDuringReload() {
+        Sinks.Many<UserEntity> snapshot = Sinks.many().unicast().onBackpressureBuffer();
+        when(userRepository.findAllByUpdatedAtAfter(any(LocalDateTime.class)))
+                .thenReturn(snapshot.asFlux())
+                .thenReturn(Flux.just(UserEntity.builder().id(1L).enabled(true).securityVersion(2).build()));
+
+        StepVerifier.create(revokedUserVersions.reload())
+                .then(() -> revokedUserVersions.revokeAll(1L))
+                .then(() -> {
+                    snapshot.tryEmitNext(UserEntity.builder().id(2L).enabled(false).build());
+                    snapshot.tryEmitComplete();
+                })
+                .verifyComplete();
+
+        assertTrue(revokedUserVersions.isRevoked(1L, 5));
+        assertTrue(revokedUserVersions.isRevoked(2L, 0));
+
+        StepVerifier.create(revokedUserVersions.reload())
+                .verifyComplete();
+
+        assertFalse(revokedUserVersions.isRevoked(1L, 2));
+        assertTrue(revokedUserVersions.isRevoked(1L, 1));
+        assertFalse(revokedUserVersions.isRevoked(2L, 0));
+    }
+}
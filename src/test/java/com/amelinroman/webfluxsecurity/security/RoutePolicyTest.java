@@ -0,0 +1,133 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Amelin Roman
+ * Класс RoutePolicyTest содержит тесты для класса RoutePolicy,
+ * который определяет правило доступа к маршруту по пути запроса.
+ */
+public class RoutePolicyTest {
+
+    private final RoutePolicy routePolicy = new RoutePolicy(
+            new String[]{"/api/v1/auth/login", "/api/v1/auth/register", "/actuator/health/**", "/files/*/public"},
+            new String[]{"/api/v1/**"},
+            Map.of(UserRole.ADMIN, new String[]{"/api/v1/admin/**"}));
+
+    /**
+     * Тест проверяет, что для пути выбирается наиболее точный шаблон,
+     * а путь, не подходящий ни под один шаблон, доступен только аутентифицированным пользователям.
+     */
+    @Test
+    public void testResolveMostSpecificPattern() {
+        assertSame(RouteAccess.PUBLIC, routePolicy.resolve("/api/v1/auth/login"));
+        assertSame(RouteAccess.AUTHENTICATED, routePolicy.resolve("/api/v1/auth/info"));
+        assertSame(RouteAccess.role(UserRole.ADMIN), routePolicy.resolve("/api/v1/admin"));
+        assertSame(RouteAccess.role(UserRole.ADMIN), routePolicy.resolve("/api/v1/admin/users/import"));
+        assertSame(RouteAccess.PUBLIC, routePolicy.resolve("/actuator/health"));
+        assertSame(RouteAccess.PUBLIC, routePolicy.resolve("/actuator/health/readiness"));
+        assertSame(RouteAccess.PUBLIC, routePolicy.resolve("/files/42/public"));
+        assertSame(RouteAccess.AUTHENTICATED, routePolicy.resolve("/files/42/private"));
+        assertSame(RouteAccess.AUTHENTICATED, routePolicy.resolve("/actuator/env"));
+        assertSame(RouteAccess.AUTHENTICATED, routePolicy.resolve("/"));
+    }
+
+    /**
+     * Тест проверяет, что пути с закодированными символами или matrix-параметрами, которые обработчик запроса
+     * сопоставляет с нормализованным путем, запрещаются, а не получают правило менее точного шаблона.
+     */
+    @Test
+    public void testDenyNonNormalizedPaths() {
+        Authentication user = authentication(UserRole.USER);
+        Authentication admin = authentication(UserRole.ADMIN);
+
+        assertSame(RouteAccess.DENIED, routePolicy.resolve("/api/v1/%61dmin/users"));
+        assertSame(RouteAccess.DENIED, routePolicy.resolve("/api/v1/admin;x=1/users"));
+        assertSame(RouteAccess.DENIED, routePolicy.resolve("/api/v1/auth/login;x=1"));
+        assertSame(RouteAccess.role(UserRole.ADMIN), routePolicy.resolve("//api/v1//admin/users/"));
+
+        assertFalse(check("/api/v1/%61dmin/users", Mono.just(user)));
+        assertFalse(check("/api/v1/admin;x=1/users", Mono.just(user)));
+        assertFalse(check("/api/v1/admin;x=1/users", Mono.just(admin)));
+    }
+
+    /**
+     * Тест проверяет, что для открытых маршрутов и запросов OPTIONS аутентификация не выполняется.
+     */
+    @Test
+    public void testRequiresAuthenticationMatcher() {
+        StepVerifier.create(routePolicy.requiresAuthenticationMatcher()
+                        .matches(MockServerWebExchange.from(MockServerHttpRequest.post("/api/v1/auth/login"))))
+                .expectNextMatches(result -> !result.isMatch())
+                .verifyComplete();
+        StepVerifier.create(routePolicy.requiresAuthenticationMatcher()
+                        .matches(MockServerWebExchange.from(MockServerHttpRequest.options("/api/v1/admin/users"))))
+                .expectNextMatches(result -> !result.isMatch())
+                .verifyComplete();
+        StepVerifier.create(routePolicy.requiresAuthenticationMatcher()
+                        .matches(MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/auth/info"))))
+                .expectNextMatches(result -> result.isMatch())
+                .verifyComplete();
+    }
+
+    /**
+     * Тест проверяет решение о доступе к маршруту в зависимости от аутентификации и роли пользователя.
+     */
+    @Test
+    public void testCheck() {
+        Authentication user = authentication(UserRole.USER);
+        Authentication admin = authentication(UserRole.ADMIN);
+
+        assertTrue(check("/api/v1/auth/register", Mono.empty()));
+        assertFalse(check("/api/v1/auth/info", Mono.empty()));
+        assertTrue(check("/api/v1/auth/info", Mono.just(user)));
+        assertFalse(check("/api/v1/admin/users", Mono.just(user)));
+        assertTrue(check("/api/v1/admin/users", Mono.just(admin)));
+    }
+
+    /**
+     * Тест проверяет, что один шаблон не может быть настроен с разными правилами,
+     * а неподдерживаемые шаблоны отклоняются при запуске.
+     */
+    @Test
+    public void testRejectsInvalidPatterns() {
+        assertThrows(IllegalStateException.class,
+                () -> new RoutePolicy(new String[]{"/api/**"}, new String[]{"/api/**"}, Map.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RoutePolicy(new String[]{"/api/**/info"}, new String[0], Map.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RoutePolicy(new String[]{"/api/{id}"}, new String[0], Map.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RoutePolicy(new String[]{"api"}, new String[0], Map.of()));
+    }
+
+    private boolean check(String path, Mono<Authentication> authentication) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        return routePolicy.check(authentication, new AuthorizationContext(exchange))
+                .map(AuthorizationDecision::isGranted)
+                .block();
+    }
+
+    private static Authentication authentication(UserRole role) {
+        return new UsernamePasswordAuthenticationToken(new CustomPrincipal(1L, "user"), null,
+                List.of(new SimpleGrantedAuthority(role.name())));
+    }
+}
@@ -0,0 +1,101 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Amelin Roman
+ * Класс ScheduledPasswordEncoderTest содержит тесты для класса ScheduledPasswordEncoder,
+ * который выполняет хэширование паролей на выделенном пуле потоков.
+ */
+public class ScheduledPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ScheduledPasswordEncoder encoder;
+
+    /**
+     * После каждого тестового метода освобождает заблокированные задачи и останавливает пул.
+     */
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    /**
+     * Тест проверяет, что кодирование выполняется на потоке пула хэширования.
+     */
+    @Test
+    public void testEncodeRunsOnHashingPool() {
+        encoder = new ScheduledPasswordEncoder(new ThreadNameEncoder(), 1, 1, meterRegistry);
+
+        StepVerifier.create(encoder.encode("password"))
+                .expectNextMatches(name -> name.startsWith("password-hashing-"))
+                .verifyComplete();
+        StepVerifier.create(encoder.matches("password", "password-hashing-1"))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    /**
+     * Тест проверяет, что при заполненной очереди задача сразу отклоняется.
+     */
+    @Test
+    public void testRejectsWhenSaturated() {
+        encoder = new ScheduledPasswordEncoder(new BlockingEncoder(release), 1, 1, meterRegistry);
+
+        encoder.encode("running").subscribe();
+        encoder.encode("queued").subscribe();
+
+        StepVerifier.create(encoder.encode("rejected"))
+                .expectError(ServiceOverloadedException.class)
+                .verify();
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+    }
+
+    /**
+     * Кодировщик, возвращающий имя потока, на котором выполняется кодирование.
+     */
+    private static class ThreadNameEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return Thread.currentThread().getName();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+
+    /**
+     * Кодировщик, блокирующий поток до вызова countDown у переданного CountDownLatch.
+     */
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
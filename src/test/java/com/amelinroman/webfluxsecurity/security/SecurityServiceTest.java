@@ -0,0 +1,50 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.exception.AuthException;
+import com.amelinroman.webfluxsecurity.exception.TooManyRequestsException;
+import com.amelinroman.webfluxsecurity.service.RefreshTokenService;
+import com.amelinroman.webfluxsecurity.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Amelin Roman
+ * Класс SecurityServiceTest содержит тесты для класса SecurityService,
+ * который аутентифицирует пользователей и выпускает JWT-токены.
+ */
+public class SecurityServiceTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final SecurityService securityService = new SecurityService(userService, mock(ReactivePasswordEncoder.class),
+            new AuthMetrics(new SimpleMeterRegistry()), new LoginThrottle(1, 0, 100, 0, 100, 60),
+            mock(RefreshTokenService.class), mock(TokenMinter.class));
+
+    /**
+     * Тест проверяет, что варианты имени пользователя, отличающиеся регистром и пробелами по краям,
+     * расходуют попытки входа одной учетной записи, а поиск выполняется по нормализованному имени.
+     */
+    @Test
+    public void testUsernameVariantsShareThrottle() {
+        when(userService.getUserCredentials(anyString())).thenReturn(Mono.empty());
+
+        StepVerifier.create(securityService.authenticate("Alice", "password"))
+                .expectError(AuthException.class)
+                .verify();
+        StepVerifier.create(securityService.authenticate(" ALICE ", "password"))
+                .expectError(TooManyRequestsException.class)
+                .verify();
+        StepVerifier.create(securityService.authenticate("alice", "password"))
+                .expectError(TooManyRequestsException.class)
+                .verify();
+
+        verify(userService, times(1)).getUserCredentials("alice");
+    }
+}
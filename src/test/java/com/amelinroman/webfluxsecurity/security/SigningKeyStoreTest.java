@@ -0,0 +1,110 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.SigningKeyEntity;
+import com.amelinroman.webfluxsecurity.repository.SigningKeyRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Amelin Roman
+ * Класс SigningKeyStoreTest содержит тесты для класса SigningKeyStore,
+ * который хранит ключи подписи JWT-токенов и выполняет их ротацию.
+ */
+public class SigningKeyStoreTest {
+
+    private List<SigningKeyEntity> keys;
+    private SigningKeyRepository repository;
+    private SigningKeyStore signingKeyStore;
+
+    /**
+     * Перед запуском каждого тестового метода создает хранилище ключей ES256 с интервалом ротации 1000 секунд,
+     * публикацией следующего ключа за 1000 секунд и моком репозитория, который хранит ключи в памяти.
+     */
+    @BeforeEach
+    public void setUp() {
+        keys = new ArrayList<>();
+        repository = mock(SigningKeyRepository.class);
+        when(repository.save(any(SigningKeyEntity.class))).thenAnswer(invocation -> {
+            keys.add(invocation.getArgument(0));
+            return Mono.just(invocation.getArgument(0));
+        });
+        when(repository.findAllByExpiresAtAfter(any(LocalDateTime.class))).thenAnswer(invocation -> Flux.fromIterable(keys));
+        when(repository.deleteExpired(any(LocalDateTime.class))).thenReturn(Mono.just(0));
+        signingKeyStore = new SigningKeyStore(repository, "ES256", 1000, 1000, 900, "key-encryption-secret");
+    }
+
+    /**
+     * Тест проверяет, что при пустой таблице создается ключ, который сразу используется для подписи
+     * и публикуется в JWKS.
+     */
+    @Test
+    public void testReloadCreatesFirstKey() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+
+        StepVerifier.create(signingKeyStore.reload(now))
+                .verifyComplete();
+
+        SigningKey key = signingKeyStore.activeKey();
+        assertEquals(1, keys.size());
+        assertEquals(SigningAlgorithm.ES256, key.getAlgorithm());
+        assertNotNull(signingKeyStore.findByKid(key.getKid()));
+        assertNotEquals(key.getKid(), keys.get(0).getPrivateKey());
+
+        JsonNode jwks = new ObjectMapper().readTree(signingKeyStore.getJwks()).get("keys");
+        assertEquals(1, jwks.size());
+        assertEquals(key.getKid(), jwks.get(0).get("kid").asText());
+        assertEquals("EC", jwks.get(0).get("kty").asText());
+    }
+
+    /**
+     * Тест проверяет, что следующий ключ публикуется заранее, но используется для подписи
+     * только после момента активации, и что повторно он не создается.
+     */
+    @Test
+    public void testReloadPublishesNextKeyAhead() {
+        LocalDateTime now = LocalDateTime.now();
+        signingKeyStore.reload(now).block();
+        String firstKid = signingKeyStore.activeKey().getKid();
+
+        signingKeyStore.reload(now).block();
+        signingKeyStore.reload(now).block();
+
+        assertEquals(2, keys.size());
+        assertEquals(firstKid, signingKeyStore.activeKey().getKid());
+        assertNotNull(signingKeyStore.findByKid(keys.get(1).getKid()));
+        assertEquals(now.plusSeconds(1000), keys.get(1).getActivatesAt());
+    }
+
+    /**
+     * Тест проверяет, что ключ, одновременно созданный другим экземпляром, не приводит к ошибке обновления.
+     */
+    @Test
+    public void testReloadToleratesConcurrentRotation() {
+        LocalDateTime now = LocalDateTime.now();
+        signingKeyStore.reload(now).block();
+        when(repository.save(any(SigningKeyEntity.class)))
+                .thenReturn(Mono.error(new DataIntegrityViolationException("duplicate activates_at")));
+
+        StepVerifier.create(signingKeyStore.reload(now))
+                .verifyComplete();
+
+        assertNotNull(signingKeyStore.activeKey());
+    }
+}
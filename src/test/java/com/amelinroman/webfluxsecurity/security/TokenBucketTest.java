@@ -0,0 +1,75 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Amelin Roman
+ * Класс TokenBucketTest содержит тесты для класса TokenBucket,
+ * который ограничивает частоту попыток входа.
+ */
+public class TokenBucketTest {
+
+    /**
+     * Тест проверяет, что после исчерпания емкости попытки отклоняются до пополнения.
+     */
+    @Test
+    public void testExhaustAndRefill() {
+        TokenBucket bucket = new TokenBucket(3, 60);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(0));
+        assertFalse(bucket.tryAcquire(999));
+
+        assertTrue(bucket.tryAcquire(1000));
+        assertFalse(bucket.tryAcquire(1000));
+    }
+
+    /**
+     * Тест проверяет, что пополнение не превышает емкость хранилища.
+     */
+    @Test
+    public void testRefillIsCappedByCapacity() {
+        TokenBucket bucket = new TokenBucket(2, 60);
+
+        assertTrue(bucket.tryAcquire(0));
+        assertTrue(bucket.tryAcquire(0));
+
+        assertTrue(bucket.tryAcquire(60_000));
+        assertTrue(bucket.tryAcquire(60_000));
+        assertFalse(bucket.tryAcquire(60_000));
+    }
+
+    /**
+     * Тест проверяет, что при одновременных попытках списывается ровно емкость хранилища.
+     */
+    @Test
+    public void testConcurrentAcquire() {
+        TokenBucket bucket = new TokenBucket(100, 0);
+        AtomicInteger acquired = new AtomicInteger();
+
+        IntStream.range(0, 1000).parallel()
+                .filter(i -> bucket.tryAcquire(0))
+                .forEach(i -> acquired.incrementAndGet());
+
+        assertEquals(100, acquired.get());
+    }
+
+    /**
+     * Тест проверяет, что емкость, не помещающаяся в упакованное состояние, отклоняется.
+     */
+    @Test
+    public void testRejectsInvalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1_000_000, 1));
+    }
+}
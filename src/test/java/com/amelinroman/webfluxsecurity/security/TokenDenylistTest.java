@@ -0,0 +1,81 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Amelin Roman
+ * Класс TokenDenylistTest содержит тесты для класса TokenDenylist,
+ * который хранит отозванные токены до истечения срока их действия.
+ */
+public class TokenDenylistTest {
+
+    private TokenDenylist tokenDenylist;
+
+    /**
+     * Перед запуском каждого тестового метода создает пустой список отозванных токенов
+     * с колесом на одну минуту и тактом в одну секунду.
+     */
+    @BeforeEach
+    public void setUp() {
+        tokenDenylist = new TokenDenylist(60, 1, 3, new SimpleMeterRegistry());
+    }
+
+    /**
+     * Тест проверяет, что запись удаляется на такте истечения токена, но не раньше.
+     */
+    @Test
+    public void testSweepRemovesExpiredTokens() {
+        long now = System.currentTimeMillis();
+        tokenDenylist.revoke("first", now + 5_000);
+        tokenDenylist.revoke("second", now + 30_000);
+
+        tokenDenylist.sweep(now + 4_000);
+        assertTrue(tokenDenylist.isRevoked("first"));
+
+        tokenDenylist.sweep(now + 6_000);
+        assertFalse(tokenDenylist.isRevoked("first"));
+        assertTrue(tokenDenylist.isRevoked("second"));
+
+        tokenDenylist.sweep(now + 31_000);
+        assertFalse(tokenDenylist.isRevoked("second"));
+    }
+
+    /**
+     * Тест проверяет, что запись, срок которой наступает через несколько оборотов колеса,
+     * сохраняется до своего такта.
+     */
+    @Test
+    public void testSweepKeepsTokensOfLaterRounds() {
+        long now = System.currentTimeMillis();
+        tokenDenylist.revoke("later", now + 150_000);
+
+        tokenDenylist.sweep(now + 70_000);
+        tokenDenylist.sweep(now + 140_000);
+        assertTrue(tokenDenylist.isRevoked("later"));
+
+        tokenDenylist.sweep(now + 151_000);
+        assertFalse(tokenDenylist.isRevoked("later"));
+    }
+
+    /**
+     * Тест проверяет, что количество отозванных токенов ограничено, а истекшие токены не сохраняются.
+     */
+    @Test
+    public void testRevokeIsBounded() {
+        long now = System.currentTimeMillis();
+        tokenDenylist.revoke("expired", now - 1_000);
+        tokenDenylist.revoke("first", now + 10_000);
+        tokenDenylist.revoke("second", now + 10_000);
+        tokenDenylist.revoke("third", now + 10_000);
+
+        assertFalse(tokenDenylist.isRevoked("expired"));
+        assertThrows(ServiceOverloadedException.class, () -> tokenDenylist.revoke("fourth", now + 10_000));
+    }
+}
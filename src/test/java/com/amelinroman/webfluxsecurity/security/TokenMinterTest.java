@@ -0,0 +1,109 @@
+package com.amelinroman.webfluxsecurity.security;
+
+import com.amelinroman.webfluxsecurity.entity.SigningKeyEntity;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import com.amelinroman.webfluxsecurity.repository.SigningKeyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Amelin Roman
+ * Класс TokenMinterTest содержит тесты для класса TokenMinter,
+ * который выпускает JWT-токены.
+ */
+public class TokenMinterTest {
+
+    /**
+     * Создает хранилище с одним ключом подписи указанного алгоритма.
+     * Репозиторий заменен моком, который хранит сохраненные ключи в памяти.
+     */
+    private static SigningKeyStore signingKeyStore(SigningAlgorithm algorithm) {
+        List<SigningKeyEntity> keys = new ArrayList<>();
+        SigningKeyRepository repository = mock(SigningKeyRepository.class);
+        when(repository.save(any(SigningKeyEntity.class))).thenAnswer(invocation -> {
+            keys.add(invocation.getArgument(0));
+            return Mono.just(invocation.getArgument(0));
+        });
+        when(repository.findAllByExpiresAtAfter(any(LocalDateTime.class))).thenAnswer(invocation -> Flux.fromIterable(keys));
+        when(repository.deleteExpired(any(LocalDateTime.class))).thenReturn(Mono.just(0));
+
+        SigningKeyStore signingKeyStore = new SigningKeyStore(repository, algorithm.name(), 86400, 900, 3600, "key-encryption-secret");
+        signingKeyStore.reload(LocalDateTime.now()).block();
+        return signingKeyStore;
+    }
+
+    /**
+     * Тест проверяет, что выпущенный токен проходит проверку JwtVerifier для каждого алгоритма подписи,
+     * а Claims, включая имя пользователя со специальными символами JSON, совпадают с переданными.
+     *
+     * @param algorithm алгоритм подписи.
+     */
+    @ParameterizedTest
+    @EnumSource(SigningAlgorithm.class)
+    public void testMintedTokenIsVerified(SigningAlgorithm algorithm) {
+        SigningKeyStore signingKeyStore = signingKeyStore(algorithm);
+        TokenMinter tokenMinter = new TokenMinter(signingKeyStore, "proselyte", 900);
+        JwtVerifier verifier = new JwtVerifier("secret", signingKeyStore, false);
+
+        TokenDetails first = tokenMinter.mint(7L, UserRole.ADMIN, "te\"st\\1", 3);
+        TokenDetails second = tokenMinter.mint(7L, UserRole.ADMIN, "te\"st\\1", 3);
+        TokenClaims claims = verifier.verify(first.getToken());
+
+        assertEquals(7L, claims.getUserId());
+        assertEquals(UserRole.ADMIN, claims.getRole());
+        assertEquals("te\"st\\1", claims.getUsername());
+        assertEquals(3, claims.getSecurityVersion());
+        assertEquals(first.getExpiresAt().getTime() / 1000, claims.getExpiration());
+        assertEquals(900_000, first.getExpiresAt().getTime() - first.getIssuedAt().getTime());
+        assertEquals(second.getToken().substring(0, second.getToken().indexOf('.')),
+                first.getToken().substring(0, first.getToken().indexOf('.')));
+        assertEquals(7L, verifier.verify(second.getToken()).getUserId());
+    }
+
+    /**
+     * Тест проверяет, что идентификаторы токенов, выданные параллельно, не повторяются.
+     */
+    @Test
+    public void testTokenIdsAreUnique() {
+        TokenMinter tokenMinter = new TokenMinter(null, "proselyte", 900);
+        Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 100_000).parallel().forEach(i -> tokenIds.add(tokenMinter.nextTokenId()));
+
+        assertEquals(100_000, tokenIds.size());
+    }
+
+    /**
+     * Тест проверяет, что подготовленный ключ сохраняется после перечитывания ключей, которое возвращает
+     * новые объекты тех же ключей.
+     */
+    @Test
+    public void testMintingKeyReusedAcrossReload() {
+        SigningKeyStore signingKeyStore = signingKeyStore(SigningAlgorithm.ES256);
+        TokenMinter tokenMinter = new TokenMinter(signingKeyStore, "proselyte", 900);
+        SigningKey activeKey = signingKeyStore.activeKey();
+        TokenMinter.MintingKey mintingKey = tokenMinter.mintingKey();
+
+        signingKeyStore.reload(LocalDateTime.now()).block();
+
+        assertNotSame(activeKey, signingKeyStore.activeKey());
+        assertSame(mintingKey, tokenMinter.mintingKey());
+    }
+}
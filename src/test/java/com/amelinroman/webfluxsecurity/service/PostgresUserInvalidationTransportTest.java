@@ -0,0 +1,29 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Amelin Roman
+ * Класс PostgresUserInvalidationTransportTest содержит тесты разбора сообщений,
+ * полученных PostgresUserInvalidationTransport из канала LISTEN/NOTIFY.
+ */
+public class PostgresUserInvalidationTransportTest {
+
+    /**
+     * Тест проверяет, что корректные сообщения разбираются, а некорректные и посторонние пропускаются без ошибки.
+     */
+    @Test
+    public void testParseSkipsMalformedPayloads() {
+        assertEquals(new UserInvalidation(42L, false, 3), PostgresUserInvalidationTransport.parse("42,false,3"));
+        assertEquals(UserInvalidation.tokenRevoked(42L, "jti", 1000L), PostgresUserInvalidationTransport.parse("42,token,jti,1000"));
+
+        assertNull(PostgresUserInvalidationTransport.parse("hello"));
+        assertNull(PostgresUserInvalidationTransport.parse("x,false,3"));
+        assertNull(PostgresUserInvalidationTransport.parse("42,token,jti,soon"));
+        assertNull(PostgresUserInvalidationTransport.parse(""));
+        assertNull(PostgresUserInvalidationTransport.parse(null));
+    }
+}
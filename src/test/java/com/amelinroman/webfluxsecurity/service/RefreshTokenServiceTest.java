@@ -0,0 +1,120 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import com.amelinroman.webfluxsecurity.entity.RefreshTokenEntity;
+import com.amelinroman.webfluxsecurity.exception.UnauthorizedException;
+import com.amelinroman.webfluxsecurity.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Amelin Roman
+ * Класс RefreshTokenServiceTest содержит тесты для класса RefreshTokenService,
+ * который выпускает и ротирует refresh-токены.
+ */
+public class RefreshTokenServiceTest {
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenService refreshTokenService;
+
+    /**
+     * Перед запуском каждого тестового метода создает сервис с моком репозитория,
+     * который сохраняет переданные сущности без изменений.
+     */
+    @BeforeEach
+    public void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, 3600, 2);
+        when(refreshTokenRepository.save(any(RefreshTokenEntity.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+    }
+
+    private static RefreshTokenEntity entity(boolean rotated) {
+        return RefreshTokenEntity.builder()
+                .id(10L)
+                .familyId("family")
+                .userId(1L)
+                .rotated(rotated)
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+    }
+
+    /**
+     * Тест проверяет, что ротация выпускает новый токен того же семейства.
+     */
+    @Test
+    public void testRotate() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Mono.just(entity(false)));
+        when(refreshTokenRepository.markRotated(10L)).thenReturn(Mono.just(1));
+
+        StepVerifier.create(refreshTokenService.rotate("refresh"))
+                .expectNextMatches(details -> details.getUserId() == 1L
+                        && details.getRefreshToken() != null
+                        && !"refresh".equals(details.getRefreshToken()))
+                .verifyComplete();
+
+        verify(refreshTokenRepository).save(argThat(saved -> "family".equals(saved.getFamilyId())));
+        verify(refreshTokenRepository, never()).revokeFamily(anyString());
+    }
+
+    /**
+     * Тест проверяет, что повторное предъявление использованного токена отзывает все токены семейства.
+     */
+    @Test
+    public void testRotateReusedTokenRevokesFamily() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Mono.just(entity(true)));
+        when(refreshTokenRepository.markRotated(10L)).thenReturn(Mono.just(0));
+        when(refreshTokenRepository.revokeFamily("family")).thenReturn(Mono.just(2));
+
+        StepVerifier.create(refreshTokenService.rotate("refresh"))
+                .expectErrorMatches(e -> e instanceof UnauthorizedException
+                        && "PROSELYTE_REFRESH_TOKEN_REUSED".equals(((UnauthorizedException) e).getErrorCode()))
+                .verify();
+
+        verify(refreshTokenRepository, times(1)).revokeFamily("family");
+        verify(refreshTokenRepository, never()).save(any(RefreshTokenEntity.class));
+    }
+
+    /**
+     * Тест проверяет, что отзыв refresh-токена отзывает его семейство только для владельца токена.
+     */
+    @Test
+    public void testRevokeChecksOwner() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Mono.just(entity(false)));
+        when(refreshTokenRepository.revokeFamily("family")).thenReturn(Mono.just(1));
+
+        StepVerifier.create(refreshTokenService.revoke("refresh", 2L))
+                .verifyComplete();
+        verify(refreshTokenRepository, never()).revokeFamily(anyString());
+
+        StepVerifier.create(refreshTokenService.revoke("refresh", 1L))
+                .verifyComplete();
+        verify(refreshTokenRepository, times(1)).revokeFamily("family");
+    }
+
+    /**
+     * Тест проверяет, что истекшие токены удаляются пакетами, пока пакет не окажется неполным.
+     */
+    @Test
+    public void testPurgeExpiredInBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        when(refreshTokenRepository.deleteExpired(eq(now), eq(2)))
+                .thenReturn(Mono.just(2))
+                .thenReturn(Mono.just(2))
+                .thenReturn(Mono.just(1));
+
+        StepVerifier.create(refreshTokenService.purgeExpired(now))
+                .expectNext(5L)
+                .verifyComplete();
+
+        verify(refreshTokenRepository, times(3)).deleteExpired(now, 2);
+    }
+}
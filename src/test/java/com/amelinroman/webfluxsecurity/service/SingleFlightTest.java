@@ -0,0 +1,101 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Amelin Roman
+ * Класс SingleFlightTest содержит тесты для класса SingleFlight,
+ * который объединяет одновременные загрузки по одному ключу.
+ */
+public class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SingleFlight<Long, String> singleFlight;
+    private AtomicInteger loads;
+
+    /**
+     * Перед запуском каждого тестового метода создает SingleFlight и сбрасывает счетчик загрузок.
+     */
+    @BeforeEach
+    public void setUp() {
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    private double deduplicated() {
+        return meterRegistry.get("user.lookup.deduplicated").tag("lookup", "test").counter().count();
+    }
+
+    /**
+     * Тест проверяет, что одновременные запросы одного ключа получают результат одной загрузки,
+     * а после ее завершения следующий запрос запускает новую загрузку.
+     */
+    @Test
+    public void testConcurrentCallsShareOneLoad() {
+        Sinks.One<String> result = Sinks.one();
+        Mono<String> call = singleFlight.execute(1L, id -> {
+            loads.incrementAndGet();
+            return result.asMono();
+        });
+
+        StepVerifier.create(Flux.merge(call, call, call))
+                .then(() -> result.tryEmitValue("user"))
+                .expectNext("user", "user", "user")
+                .verifyComplete();
+        assertEquals(1, loads.get());
+        assertEquals(2, deduplicated());
+        assertEquals(0, singleFlight.inFlight());
+
+        StepVerifier.create(singleFlight.execute(1L, id -> {
+                    loads.incrementAndGet();
+                    return Mono.just("reloaded");
+                }))
+                .expectNext("reloaded")
+                .verifyComplete();
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Тест проверяет, что пустой результат и ошибка передаются всем объединенным запросам
+     * и не остаются в списке выполняющихся загрузок.
+     */
+    @Test
+    public void testEmptyAndErrorAreShared() {
+        Sinks.One<String> empty = Sinks.one();
+        Mono<String> emptyCall = singleFlight.execute(1L, id -> empty.asMono());
+        StepVerifier.create(Flux.merge(emptyCall, emptyCall))
+                .then(empty::tryEmitEmpty)
+                .verifyComplete();
+
+        Sinks.One<String> error = Sinks.one();
+        Mono<String> errorCall = singleFlight.execute(2L, id -> error.asMono());
+        StepVerifier.create(Flux.merge(errorCall, errorCall))
+                .then(() -> error.tryEmitError(new IllegalStateException("boom")))
+                .verifyErrorMessage("boom");
+
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    /**
+     * Тест проверяет, что загрузки разных ключей не объединяются.
+     */
+    @Test
+    public void testDifferentKeysLoadSeparately() {
+        Flux.merge(singleFlight.execute(1L, id -> Mono.fromCallable(() -> "user" + loads.incrementAndGet())),
+                        singleFlight.execute(2L, id -> Mono.fromCallable(() -> "user" + loads.incrementAndGet())))
+                .blockLast();
+
+        assertEquals(2, loads.get());
+        assertEquals(0, deduplicated());
+    }
+}
@@ -0,0 +1,117 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Amelin Roman
+ * Класс UserCacheTest содержит тесты для класса UserCache,
+ * который кэширует пользователей, загруженных по идентификатору.
+ */
+public class UserCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private UserCache userCache;
+
+    /**
+     * Перед запуском каждого тестового метода создает пустой кэш.
+     */
+    @BeforeEach
+    public void setUp() {
+        userCache = new UserCache(100, 60, meterRegistry);
+    }
+
+    private static UserEntity user(Long id) {
+        return UserEntity.builder().id(id).enabled(true).build();
+    }
+
+    /**
+     * Тест проверяет, что добавленный пользователь возвращается из кэша, а попадания и промахи учитываются.
+     */
+    @Test
+    public void testPutAndGet() {
+        StepVerifier.create(userCache.getIfPresent(1L))
+                .verifyComplete();
+
+        userCache.put(user(1L), userCache.stamp());
+
+        StepVerifier.create(userCache.getIfPresent(1L))
+                .expectNextMatches(user -> user.getId() == 1L)
+                .verifyComplete();
+        assertEquals(1, userCache.stats().hitCount());
+        assertEquals(1, userCache.stats().missCount());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "users").tag("result", "hit").functionCounter().count());
+    }
+
+    /**
+     * Тест проверяет, что попадания и промахи кэша признаков активности публикуются в метриках.
+     */
+    @Test
+    public void testEnabledCacheMetrics() {
+        StepVerifier.create(userCache.getEnabledIfPresent(1L))
+                .verifyComplete();
+
+        userCache.putEnabled(1L, true, userCache.stamp());
+
+        StepVerifier.create(userCache.getEnabledIfPresent(1L))
+                .expectNext(true)
+                .verifyComplete();
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "user_enabled").tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "user_enabled").tag("result", "miss").functionCounter().count());
+        assertEquals(0, userCache.stats().missCount());
+    }
+
+    /**
+     * Тест проверяет, что после явного удаления пользователь отсутствует в кэше.
+     */
+    @Test
+    public void testInvalidate() {
+        userCache.put(user(1L), userCache.stamp());
+        userCache.invalidate(1L);
+
+        StepVerifier.create(userCache.getIfPresent(1L))
+                .verifyComplete();
+    }
+
+    /**
+     * Тест проверяет, что пользователь, загрузка которого началась до очистки кэша, в кэш не попадает.
+     */
+    @Test
+    public void testPutAfterInvalidateIsDiscarded() {
+        long stamp = userCache.stamp();
+        userCache.invalidate(1L);
+        userCache.put(user(1L), stamp);
+        userCache.putEnabled(2L, true, stamp);
+
+        StepVerifier.create(userCache.getIfPresent(1L))
+                .verifyComplete();
+        StepVerifier.create(userCache.getEnabledIfPresent(2L))
+                .verifyComplete();
+    }
+
+    /**
+     * Тест проверяет, что признак активности берется из закэшированного пользователя или из отдельного кэша
+     * и удаляется вместе с пользователем.
+     */
+    @Test
+    public void testEnabled() {
+        userCache.put(user(1L), userCache.stamp());
+        userCache.putEnabled(2L, false, userCache.stamp());
+
+        StepVerifier.create(userCache.getEnabledIfPresent(1L))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(userCache.getEnabledIfPresent(2L))
+                .expectNext(false)
+                .verifyComplete();
+
+        userCache.invalidate(2L);
+        StepVerifier.create(userCache.getEnabledIfPresent(2L))
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,95 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import com.amelinroman.webfluxsecurity.dto.UserImportResultDto;
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.security.ReactivePasswordEncoder;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Amelin Roman
+ * Класс UserImportServiceTest содержит тесты для класса UserImportService,
+ * который массово регистрирует пользователей. Пакетная вставка проверяется на встроенной базе данных H2.
+ */
+public class UserImportServiceTest {
+
+    private DatabaseClient databaseClient;
+    private UserImportService userImportService;
+
+    /**
+     * Перед запуском каждого тестового метода создает отдельную базу данных H2 с таблицей пользователей
+     * и сервис с размером пакета 3 и кодировщиком, который возвращает пароль с префиксом.
+     */
+    @BeforeEach
+    public void setUp() {
+        databaseClient = DatabaseClient.create(ConnectionFactories.get(
+                "r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL"));
+        databaseClient.sql("CREATE TABLE users (id SERIAL PRIMARY KEY, username VARCHAR(64) NOT NULL UNIQUE, "
+                        + "password VARCHAR(2048) NOT NULL, role VARCHAR(32) NOT NULL, first_name VARCHAR(64) NOT NULL, "
+                        + "last_name VARCHAR(64) NOT NULL, enabled BOOLEAN NOT NULL DEFAULT FALSE, "
+                        + "created_at TIMESTAMP, updated_at TIMESTAMP)")
+                .then()
+                .block();
+
+        ReactivePasswordEncoder passwordEncoder = mock(ReactivePasswordEncoder.class);
+        when(passwordEncoder.encode(any()))
+                .thenAnswer(invocation -> Mono.just("encoded:" + invocation.getArgument(0)));
+        userImportService = new UserImportService(databaseClient, passwordEncoder, 2, 3);
+    }
+
+    private static UserEntity user(String username) {
+        return UserEntity.builder()
+                .username(username)
+                .password("password")
+                .firstName("First")
+                .lastName("Last")
+                .build();
+    }
+
+    /**
+     * Тест проверяет, что результаты возвращаются в порядке записей, а повторяющиеся имена и
+     * некорректные записи отмечаются без прерывания импорта.
+     */
+    @Test
+    public void testImportReportsConflictsInline() {
+        Flux<UserEntity> users = Flux.just(user("alice"), user("bob"), user("alice"),
+                user("carol").toBuilder().password(null).build(), user("dave"));
+
+        StepVerifier.create(userImportService.importUsers(users).map(UserImportResultDto::getStatus))
+                .expectNext(UserImportResultDto.CREATED, UserImportResultDto.CREATED, UserImportResultDto.CONFLICT,
+                        UserImportResultDto.INVALID, UserImportResultDto.CREATED)
+                .verifyComplete();
+
+        StepVerifier.create(databaseClient.sql("SELECT COUNT(*) FROM users WHERE enabled = TRUE AND role = 'USER'")
+                        .map(row -> row.get(0, Long.class))
+                        .one())
+                .expectNext(3L)
+                .verifyComplete();
+    }
+
+    /**
+     * Тест проверяет, что имя, занятое до импорта, возвращается как конфликт.
+     */
+    @Test
+    public void testImportExistingUsername() {
+        StepVerifier.create(userImportService.importUsers(Flux.just(user("alice"))))
+                .expectNextMatches(result -> UserImportResultDto.CREATED.equals(result.getStatus()) && result.getId() != null)
+                .verifyComplete();
+
+        StepVerifier.create(userImportService.importUsers(Flux.just(user("alice"))))
+                .expectNextMatches(result -> UserImportResultDto.CONFLICT.equals(result.getStatus())
+                        && result.getLine() == 1 && result.getId() == null)
+                .verifyComplete();
+    }
+}
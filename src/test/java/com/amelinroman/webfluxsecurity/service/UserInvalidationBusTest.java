@@ -0,0 +1,135 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.repository.UserRepository;
+import com.amelinroman.webfluxsecurity.security.RevokedUserVersions;
+import com.amelinroman.webfluxsecurity.security.TokenDenylist;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Amelin Roman
+ * Класс UserInvalidationBusTest содержит тесты для класса UserInvalidationBus,
+ * который применяет сообщения об изменении пользователей на других экземплярах приложения.
+ * Сообщения доставляются через InMemoryUserInvalidationTransport.
+ */
+public class UserInvalidationBusTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InMemoryUserInvalidationTransport transport = new InMemoryUserInvalidationTransport();
+    private UserCache userCache;
+    private RevokedUserVersions revokedUserVersions;
+    private TokenDenylist tokenDenylist;
+    private UserInvalidationBus bus;
+
+    /**
+     * Перед запуском каждого тестового метода создает шину с транспортом в памяти,
+     * кэшем с одним пользователем и набором отозванных версий в режиме без обращения к базе данных.
+     */
+    @BeforeEach
+    public void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllByUpdatedAtAfter(any(LocalDateTime.class))).thenReturn(Flux.empty());
+
+        userCache = new UserCache(100, 60, new SimpleMeterRegistry());
+        userCache.put(UserEntity.builder().id(1L).enabled(true).build(), userCache.stamp());
+        revokedUserVersions = new RevokedUserVersions(userRepository, true, 3600, 30);
+        tokenDenylist = new TokenDenylist(3600, 5, 100, meterRegistry);
+        bus = new UserInvalidationBus(transport, userCache, revokedUserVersions, tokenDenylist, meterRegistry);
+        bus.start();
+    }
+
+    /**
+     * После каждого тестового метода отменяет подписку шины.
+     */
+    @AfterEach
+    public void tearDown() {
+        bus.stop();
+    }
+
+    private double received(String scope) {
+        return meterRegistry.get("user.invalidation.received").tag("scope", scope).counter().count();
+    }
+
+    /**
+     * Тест проверяет, что сообщение об отключении пользователя удаляет его из кэша и отзывает его токены,
+     * а сообщение о повторном включении снимает отзыв.
+     */
+    @Test
+    public void testDisableAndEnable() {
+        bus.publish(new UserInvalidation(1L, false, 1)).block();
+
+        StepVerifier.create(userCache.getIfPresent(1L))
+                .verifyComplete();
+        assertTrue(revokedUserVersions.isRevoked(1L, 1));
+
+        bus.publish(new UserInvalidation(1L, true, 1)).block();
+
+        assertFalse(revokedUserVersions.isRevoked(1L, 1));
+        assertTrue(revokedUserVersions.isRevoked(1L, 0));
+        assertEquals(2, received("user"));
+    }
+
+    /**
+     * Тест проверяет, что сообщение о возможной потере сообщений очищает весь кэш.
+     */
+    @Test
+    public void testInvalidateAll() {
+        bus.publish(UserInvalidation.ALL).block();
+
+        StepVerifier.create(userCache.getIfPresent(1L))
+                .verifyComplete();
+        assertEquals(1, received("all"));
+    }
+
+    /**
+     * Тест проверяет, что токен, отозванный на одном экземпляре приложения, отзывается и на другом экземпляре,
+     * подписанном на тот же канал.
+     */
+    @Test
+    public void testTokenRevocationReachesOtherInstances() {
+        TokenDenylist otherTokenDenylist = new TokenDenylist(3600, 5, 100, new SimpleMeterRegistry());
+        UserInvalidationBus otherBus = new UserInvalidationBus(transport, new UserCache(100, 60, new SimpleMeterRegistry()),
+                revokedUserVersions, otherTokenDenylist, new SimpleMeterRegistry());
+        otherBus.start();
+        try {
+            bus.revokeToken(1L, "jti", System.currentTimeMillis() + 60_000).block();
+
+            assertTrue(tokenDenylist.isRevoked("jti"));
+            assertTrue(otherTokenDenylist.isRevoked("jti"));
+            assertEquals(1, received("token"));
+            assertEquals(0, received("user"));
+        } finally {
+            otherBus.stop();
+        }
+    }
+
+    /**
+     * Тест проверяет формат сообщения, передаваемого через канал.
+     */
+    @Test
+    public void testFormatAndParse() {
+        UserInvalidation invalidation = new UserInvalidation(42L, false, 3);
+        UserInvalidation revocation = UserInvalidation.tokenRevoked(42L, "a-b_c", 1_700_000_000_000L);
+
+        assertEquals("42,false,3", invalidation.format());
+        assertEquals(invalidation, UserInvalidation.parse(invalidation.format()));
+        assertEquals("42,token,a-b_c,1700000000000", revocation.format());
+        assertEquals(revocation, UserInvalidation.parse(revocation.format()));
+        assertThrows(IllegalArgumentException.class, () -> UserInvalidation.parse("42"));
+    }
+}
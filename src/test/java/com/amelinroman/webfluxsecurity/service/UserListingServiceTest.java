@@ -0,0 +1,76 @@
+package com.amelinroman.webfluxsecurity.service;
+
+import com.amelinroman.webfluxsecurity.entity.UserEntity;
+import com.amelinroman.webfluxsecurity.entity.UserRole;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+
+/**
+ * @author Amelin Roman
+ * Класс UserListingServiceTest содержит тесты для класса UserListingService,
+ * который выдает список пользователей с keyset-пагинацией. Запросы проверяются на встроенной базе данных H2.
+ */
+public class UserListingServiceTest {
+
+    private UserListingService userListingService;
+
+    /**
+     * Перед запуском каждого тестового метода создает отдельную базу данных H2 с семью пользователями,
+     * каждый третий из которых — неактивный администратор, и сервис с размером страницы 2.
+     */
+    @BeforeEach
+    public void setUp() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+        DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+        databaseClient.sql("CREATE TABLE users (id SERIAL PRIMARY KEY, username VARCHAR(64) NOT NULL UNIQUE, "
+                        + "password VARCHAR(2048) NOT NULL, role VARCHAR(32) NOT NULL, first_name VARCHAR(64) NOT NULL, "
+                        + "last_name VARCHAR(64) NOT NULL, enabled BOOLEAN NOT NULL DEFAULT FALSE, "
+                        + "security_version INTEGER NOT NULL DEFAULT 0, created_at TIMESTAMP, updated_at TIMESTAMP)")
+                .then()
+                .block();
+        Flux.range(1, 7)
+                .concatMap(i -> databaseClient.sql("INSERT INTO users (username, password, role, first_name, last_name, enabled) "
+                                + "VALUES (:username, 'password', :role, 'First', 'Last', :enabled)")
+                        .bind("username", "user" + i)
+                        .bind("role", (i % 3 == 0 ? UserRole.ADMIN : UserRole.USER).name())
+                        .bind("enabled", i % 3 != 0)
+                        .then())
+                .blockLast();
+
+        userListingService = new UserListingService(new R2dbcEntityTemplate(connectionFactory), 2);
+    }
+
+    /**
+     * Тест проверяет, что все пользователи выдаются по порядку через несколько страниц,
+     * включая последнюю неполную страницу.
+     */
+    @Test
+    public void testFindAllAcrossPages() {
+        StepVerifier.create(userListingService.findUsers(null, null, null).map(UserEntity::getId))
+                .expectNext(1L, 2L, 3L, 4L, 5L, 6L, 7L)
+                .verifyComplete();
+    }
+
+    /**
+     * Тест проверяет, что фильтры применяются ко всем страницам, а выборка продолжается после заданного идентификатора.
+     */
+    @Test
+    public void testFindWithFiltersAfterId() {
+        StepVerifier.create(userListingService.findUsers(true, UserRole.USER, 2L).map(UserEntity::getId))
+                .expectNext(4L, 5L, 7L)
+                .verifyComplete();
+
+        StepVerifier.create(userListingService.findUsers(false, null, null).map(UserEntity::getUsername))
+                .expectNext("user3", "user6")
+                .verifyComplete();
+    }
+}